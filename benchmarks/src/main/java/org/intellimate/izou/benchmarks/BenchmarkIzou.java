@@ -0,0 +1,77 @@
+package org.intellimate.izou.benchmarks;
+
+import org.intellimate.izou.events.EventMinimalImpl;
+import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.identification.Identifiable;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.identification.IdentificationManager;
+import org.intellimate.izou.main.Main;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Holds the instance of izou the benchmarks run against, one for every forked JVM.
+ * <p>
+ * Izou is started without addons and without the lib-folder, all the addons are in-memory stubs registered by the
+ * benchmarks. The security-manager must be disabled with -DnoSecurity=true, the Fork-annotation of every benchmark
+ * takes care of it.
+ * </p>
+ * @version 1.0
+ */
+public final class BenchmarkIzou {
+    /**
+     * the type of the Events fired by the benchmarks
+     */
+    public static final String EVENT_TYPE = "izou.benchmark.event";
+    /**
+     * the descriptors of the Events fired by the benchmarks
+     */
+    public static final List<String> DESCRIPTORS = Arrays.asList("izou.benchmark.descriptor1",
+            "izou.benchmark.descriptor2");
+    private static Main main;
+    private static Identification source;
+
+    private BenchmarkIzou() {
+    }
+
+    /**
+     * returns the instance of izou, starting it if necessary
+     * @return the instance of Main
+     */
+    public static synchronized Main getMain() {
+        if (main == null)
+            main = new Main(null, false, true);
+        return main;
+    }
+
+    /**
+     * returns the source of the benchmark-Events
+     * @return the Identification of the source
+     */
+    public static synchronized Identification getSource() {
+        if (source == null)
+            source = register(() -> "izou.benchmark.source");
+        return source;
+    }
+
+    /**
+     * registers the Identifiable with the IdentificationManager
+     * @param identifiable the Identifiable to register
+     * @return the Identification
+     */
+    public static Identification register(Identifiable identifiable) {
+        IdentificationManager.getInstance().registerIdentification(identifiable);
+        return IdentificationManager.getInstance().getIdentification(identifiable)
+                .orElseThrow(() -> new IllegalStateException("unable to register " + identifiable.getID()));
+    }
+
+    /**
+     * creates a new Event of the benchmark-type
+     * @param source the source of the Event
+     * @return the Event
+     */
+    public static EventModel<?> createEvent(Identification source) {
+        return new EventMinimalImpl(EVENT_TYPE, source, DESCRIPTORS);
+    }
+}
@@ -0,0 +1,52 @@
+package org.intellimate.izou.benchmarks;
+
+import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.output.OutputManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link OutputManager#passDataToOutputPlugins(EventModel)} with a growing number of OutputPlugins.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-DnoSecurity=true")
+public class OutputManagerBenchmark {
+    @Param({"1", "8", "32"})
+    private int outputPluginCount;
+    private OutputManager outputManager;
+    private Identification source;
+    private final List<StubOutputPlugin> outputPlugins = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        outputManager = BenchmarkIzou.getMain().getOutputManager();
+        source = BenchmarkIzou.getSource();
+        for (int i = 0; i < outputPluginCount; i++) {
+            StubOutputPlugin outputPlugin = new StubOutputPlugin("izou.benchmark.outputPlugin" + i);
+            outputManager.addOutputPlugin(outputPlugin);
+            outputPlugins.add(outputPlugin);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        outputPlugins.forEach(outputManager::removeOutputPlugin);
+        outputPlugins.clear();
+    }
+
+    @Benchmark
+    public EventModel<?> passDataToOutputPlugins() {
+        EventModel<?> event = BenchmarkIzou.createEvent(source);
+        outputManager.passDataToOutputPlugins(event);
+        return event;
+    }
+}
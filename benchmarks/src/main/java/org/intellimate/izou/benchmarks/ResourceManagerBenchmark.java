@@ -0,0 +1,51 @@
+package org.intellimate.izou.benchmarks;
+
+import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.resource.ResourceManager;
+import org.intellimate.izou.resource.ResourceModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ResourceManager#generateResources(EventModel)} with a growing number of ResourceBuilders.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-DnoSecurity=true")
+public class ResourceManagerBenchmark {
+    @Param({"1", "8", "32"})
+    private int resourceBuilderCount;
+    private ResourceManager resourceManager;
+    private Identification source;
+    private final List<StubResourceBuilder> resourceBuilders = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        resourceManager = BenchmarkIzou.getMain().getResourceManager();
+        source = BenchmarkIzou.getSource();
+        for (int i = 0; i < resourceBuilderCount; i++) {
+            StubResourceBuilder resourceBuilder = new StubResourceBuilder("izou.benchmark.resourceBuilder" + i);
+            resourceManager.registerResourceBuilder(resourceBuilder);
+            resourceBuilders.add(resourceBuilder);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        resourceBuilders.forEach(resourceManager::unregisterResourceBuilder);
+        resourceBuilders.clear();
+    }
+
+    @Benchmark
+    public List<ResourceModel> generateResources() {
+        return resourceManager.generateResources(BenchmarkIzou.createEvent(source));
+    }
+}
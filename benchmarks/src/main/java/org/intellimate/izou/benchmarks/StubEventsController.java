@@ -0,0 +1,30 @@
+package org.intellimate.izou.benchmarks;
+
+import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.events.EventsControllerModel;
+
+/**
+ * An EventsController approving every Event.
+ * @version 1.0
+ */
+public class StubEventsController implements EventsControllerModel {
+    private final String id;
+
+    /**
+     * creates a new StubEventsController
+     * @param id the ID of the controller
+     */
+    public StubEventsController(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public boolean controlEventDispatcher(EventModel event) {
+        return true;
+    }
+
+    @Override
+    public String getID() {
+        return id;
+    }
+}
@@ -0,0 +1,73 @@
+package org.intellimate.izou.benchmarks;
+
+import com.google.common.reflect.TypeToken;
+import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.output.OutputPluginModel;
+import org.intellimate.izou.resource.ResourceModel;
+
+import java.util.function.Consumer;
+
+/**
+ * An OutputPlugin which renders nothing and signals the OutputManager immediately that it finished.
+ * @version 1.0
+ */
+public class StubOutputPlugin implements OutputPluginModel<Object, Object> {
+    private final String id;
+
+    /**
+     * creates and registers the Identification of the StubOutputPlugin
+     * @param id the ID of the OutputPlugin
+     */
+    public StubOutputPlugin(String id) {
+        this.id = id;
+        BenchmarkIzou.register(this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void addToEventList(EventModel event) {
+        //the OutputManager waits until the consumer with our ID got called
+        for (Object resource : event.getListResourceContainer().provideResource(id)) {
+            Object consumer = ((ResourceModel) resource).getResource();
+            if (consumer instanceof Consumer)
+                ((Consumer<Boolean>) consumer).accept(true);
+        }
+    }
+
+    @Override
+    public void outputExtensionAdded(Identification identification) {
+    }
+
+    @Override
+    public void outputExtensionRemoved(Identification identification) {
+    }
+
+    @Override
+    public boolean isRunning() {
+        return true;
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public TypeToken<Object> getReceivingType() {
+        return TypeToken.of(Object.class);
+    }
+
+    @Override
+    public TypeToken<Object> getArgumentType() {
+        return TypeToken.of(Object.class);
+    }
+
+    @Override
+    public void run() {
+    }
+
+    @Override
+    public String getID() {
+        return id;
+    }
+}
@@ -0,0 +1,54 @@
+package org.intellimate.izou.benchmarks;
+
+import org.intellimate.izou.events.EventMinimalImpl;
+import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.resource.ResourceBuilderModel;
+import org.intellimate.izou.resource.ResourceMinimalImpl;
+import org.intellimate.izou.resource.ResourceModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A ResourceBuilder providing one String-Resource for the benchmark-Events.
+ * @version 1.0
+ */
+public class StubResourceBuilder implements ResourceBuilderModel {
+    private final String id;
+    private final String resourceID;
+    private final Identification identification;
+
+    /**
+     * creates and registers the Identification of the StubResourceBuilder
+     * @param id the ID of the ResourceBuilder
+     */
+    public StubResourceBuilder(String id) {
+        this.id = id;
+        this.resourceID = id + ".resource";
+        this.identification = BenchmarkIzou.register(this);
+    }
+
+    @Override
+    public List<? extends ResourceModel> announceResources() {
+        return Collections.singletonList(new ResourceMinimalImpl<>(resourceID, identification, null, null));
+    }
+
+    @Override
+    public List<? extends EventModel<?>> announceEvents() {
+        return Collections.singletonList(new EventMinimalImpl(BenchmarkIzou.EVENT_TYPE, identification,
+                new ArrayList<>()));
+    }
+
+    @Override
+    public List<ResourceModel> provideResource(List<? extends ResourceModel> resources, Optional<EventModel> event) {
+        return Collections.singletonList(new ResourceMinimalImpl<>(resourceID, identification, "value", null));
+    }
+
+    @Override
+    public String getID() {
+        return id;
+    }
+}
@@ -0,0 +1,17 @@
+package org.intellimate.izou.benchmarks;
+
+import org.intellimate.izou.events.SynchronousEventsControllerModel;
+
+/**
+ * An EventsController approving every Event, called on the thread processing the Event.
+ * @version 1.0
+ */
+public class StubSynchronousEventsController extends StubEventsController implements SynchronousEventsControllerModel {
+    /**
+     * creates a new StubSynchronousEventsController
+     * @param id the ID of the controller
+     */
+    public StubSynchronousEventsController(String id) {
+        super(id);
+    }
+}
@@ -0,0 +1,71 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.benchmarks.BenchmarkIzou;
+import org.intellimate.izou.benchmarks.StubSynchronousEventsController;
+import org.intellimate.izou.identification.Identification;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the garbage of {@link EventDistributor#processEvent(EventDispatch)} in the steady state: one
+ * EventsController, n listeners and one finished-listener.
+ * <p>
+ * Compare the {@code gc.alloc.rate.norm} (bytes per operation) of {@link #processEvent()} with the one of
+ * {@link #createEvent()}, the difference is the garbage of the dispatching.
+ * </p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-DnoSecurity=true")
+public class AllocationBenchmark {
+    @Param({"1", "8"})
+    private int width;
+    private EventDistributor eventDistributor;
+    private Identification source;
+    private StubSynchronousEventsController controller;
+    private final List<EventListenerModel> listeners = new ArrayList<>();
+    private final EventListenerModel finishedListener = event -> {};
+
+    @Setup
+    public void setUp() {
+        eventDistributor = BenchmarkIzou.getMain().getEventDistributor();
+        source = BenchmarkIzou.getSource();
+        controller = new StubSynchronousEventsController("izou.benchmark.allocation.controller");
+        eventDistributor.registerEventsController(controller);
+        for (int i = 0; i < width; i++) {
+            EventListenerModel listener = event -> {};
+            eventDistributor.registerEventListener(Collections.singletonList(BenchmarkIzou.EVENT_TYPE), listener);
+            listeners.add(listener);
+        }
+        eventDistributor.registerEventFinishedListener(Collections.singletonList(BenchmarkIzou.EVENT_TYPE),
+                finishedListener);
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventDistributor.unregisterEventFinishedListener(finishedListener);
+        listeners.forEach(eventDistributor::unregisterEventListener);
+        listeners.clear();
+        eventDistributor.unregisterEventsController(controller);
+    }
+
+    @Benchmark
+    public EventModel<?> createEvent() {
+        return BenchmarkIzou.createEvent(source);
+    }
+
+    @Benchmark
+    public EventModel<?> processEvent() {
+        EventModel<?> event = BenchmarkIzou.createEvent(source);
+        eventDistributor.processEvent(new EventDispatch(eventDistributor, event, true, null));
+        return event;
+    }
+}
@@ -0,0 +1,59 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.benchmarks.BenchmarkIzou;
+import org.intellimate.izou.benchmarks.StubEventsController;
+import org.intellimate.izou.benchmarks.StubSynchronousEventsController;
+import org.intellimate.izou.identification.Identification;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventDistributor#processEvent(EventDispatch)} with a growing number of EventsControllers (and nothing
+ * else registered), either synchronous or called on the thread-pool.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-DnoSecurity=true")
+public class EventsControllerBenchmark {
+    @Param({"1", "8", "32"})
+    private int controllerCount;
+    @Param({"true", "false"})
+    private boolean synchronous;
+    private EventDistributor eventDistributor;
+    private Identification source;
+    private final List<EventsControllerModel> controllers = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        eventDistributor = BenchmarkIzou.getMain().getEventDistributor();
+        source = BenchmarkIzou.getSource();
+        for (int i = 0; i < controllerCount; i++) {
+            String id = "izou.benchmark.controller" + i;
+            EventsControllerModel controller = synchronous
+                    ? new StubSynchronousEventsController(id)
+                    : new StubEventsController(id);
+            eventDistributor.registerEventsController(controller);
+            controllers.add(controller);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        controllers.forEach(eventDistributor::unregisterEventsController);
+        controllers.clear();
+    }
+
+    @Benchmark
+    public EventModel<?> processEvent() {
+        EventModel<?> event = BenchmarkIzou.createEvent(source);
+        eventDistributor.processEvent(new EventDispatch(eventDistributor, event, true, null));
+        return event;
+    }
+}
@@ -0,0 +1,53 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.benchmarks.BenchmarkIzou;
+import org.intellimate.izou.identification.Identification;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventDistributor#processEvent(EventDispatch)} with a growing number of listeners for the Event (and
+ * nothing else registered).
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-DnoSecurity=true")
+public class ListenerFanOutBenchmark {
+    @Param({"1", "8", "64"})
+    private int width;
+    private EventDistributor eventDistributor;
+    private Identification source;
+    private final List<EventListenerModel> listeners = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        eventDistributor = BenchmarkIzou.getMain().getEventDistributor();
+        source = BenchmarkIzou.getSource();
+        for (int i = 0; i < width; i++) {
+            EventListenerModel listener = event -> {};
+            eventDistributor.registerEventListener(Collections.singletonList(BenchmarkIzou.EVENT_TYPE), listener);
+            listeners.add(listener);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        listeners.forEach(eventDistributor::unregisterEventListener);
+        listeners.clear();
+    }
+
+    @Benchmark
+    public EventModel<?> processEvent() {
+        EventModel<?> event = BenchmarkIzou.createEvent(source);
+        eventDistributor.processEvent(new EventDispatch(eventDistributor, event, true, null));
+        return event;
+    }
+}
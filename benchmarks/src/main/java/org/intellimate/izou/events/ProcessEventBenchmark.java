@@ -0,0 +1,66 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.benchmarks.BenchmarkIzou;
+import org.intellimate.izou.benchmarks.StubOutputPlugin;
+import org.intellimate.izou.benchmarks.StubResourceBuilder;
+import org.intellimate.izou.benchmarks.StubSynchronousEventsController;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.main.Main;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EventDistributor#processEvent(EventDispatch)} end to end: one EventsController, one ResourceBuilder,
+ * one listener, one OutputPlugin and one finished-listener, all of them stubs.
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-DnoSecurity=true")
+public class ProcessEventBenchmark {
+    private Main main;
+    private EventDistributor eventDistributor;
+    private Identification source;
+    private final EventListenerModel listener = event -> {};
+    private final EventListenerModel finishedListener = event -> {};
+    private StubSynchronousEventsController controller;
+    private StubResourceBuilder resourceBuilder;
+    private StubOutputPlugin outputPlugin;
+
+    @Setup
+    public void setUp() {
+        main = BenchmarkIzou.getMain();
+        eventDistributor = main.getEventDistributor();
+        source = BenchmarkIzou.getSource();
+        controller = new StubSynchronousEventsController("izou.benchmark.controller");
+        eventDistributor.registerEventsController(controller);
+        resourceBuilder = new StubResourceBuilder("izou.benchmark.resourceBuilder");
+        main.getResourceManager().registerResourceBuilder(resourceBuilder);
+        eventDistributor.registerEventListener(Collections.singletonList(BenchmarkIzou.EVENT_TYPE), listener);
+        outputPlugin = new StubOutputPlugin("izou.benchmark.outputPlugin");
+        main.getOutputManager().addOutputPlugin(outputPlugin);
+        eventDistributor.registerEventFinishedListener(Collections.singletonList(BenchmarkIzou.EVENT_TYPE),
+                finishedListener);
+    }
+
+    @TearDown
+    public void tearDown() {
+        eventDistributor.unregisterEventFinishedListener(finishedListener);
+        main.getOutputManager().removeOutputPlugin(outputPlugin);
+        eventDistributor.unregisterEventListener(listener);
+        main.getResourceManager().unregisterResourceBuilder(resourceBuilder);
+        eventDistributor.unregisterEventsController(controller);
+    }
+
+    @Benchmark
+    public EventModel<?> processEvent() {
+        EventModel<?> event = BenchmarkIzou.createEvent(source);
+        eventDistributor.processEvent(new EventDispatch(eventDistributor, event, true, null));
+        return event;
+    }
+}
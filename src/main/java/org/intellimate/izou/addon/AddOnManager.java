@@ -88,7 +88,7 @@ public class AddOnManager extends IzouModule implements AddonThreadPoolUser {
                 .map(addOn -> submit((Runnable) addOn::register))
                 .collect(Collectors.toList());
         try {
-            timeOut(futures, 30000);
+            awaitAll(futures, 30000);
         } catch (InterruptedException e) {
             debug("interrupted while trying to time out the addOns", e);
         }
@@ -114,7 +114,7 @@ public class AddOnManager extends IzouModule implements AddonThreadPoolUser {
                 })
                 .collect(Collectors.toList());
         try {
-            timeOut(futures, 30000);
+            awaitAll(futures, 30000);
         } catch (InterruptedException e) {
             debug("interrupted while trying to time out the addOns", e);
         }
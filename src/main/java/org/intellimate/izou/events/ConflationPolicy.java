@@ -0,0 +1,43 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+/**
+ * This enum contains the different ways equal Events (see {@link Object#equals(Object)}, e.g. same type, source and
+ * descriptors for {@link EventMinimalImpl}) fired within one conflation-window get combined.
+ * The conflated Events get notified with {@link EventLifeCycle#CANCELED}.
+ * @version 1.0
+ */
+@AddonAccessible
+public enum ConflationPolicy {
+    /**
+     * every Event gets processed.
+     */
+    NONE,
+    /**
+     * the first Event gets processed immediately, all the equal Events fired within the window are dropped.
+     */
+    FIRST,
+    /**
+     * the Event is held back until the window is over, then only the latest of the equal Events fired within the
+     * window gets processed. The held back Event is delayed, so other Events of the same source fired later within
+     * the window may overtake it.
+     */
+    LATEST;
+
+    /**
+     * parses the policy from the value of a property, e.g. latest.
+     * @param value the value, may be null
+     * @param defaultPolicy the policy to return if the value is null or unknown
+     * @return the parsed policy
+     */
+    public static ConflationPolicy parse(String value, ConflationPolicy defaultPolicy) {
+        if (value == null)
+            return defaultPolicy;
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return defaultPolicy;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The global symbol-table of the descriptors (and types) of the Events.
+ * <p>
+ * Every descriptor gets interned to a small integer the first time it is resolved, the integer never changes while
+ * Izou is running. The Events, the listeners, the ResourceBuilders and the EventsControllers are matched with
+ * {@link DescriptorSet}s of these integers instead of comparing the Strings.
+ * Addons should resolve their descriptors once (e.g. when registering) and keep the result.
+ * The table is never cleaned, so the descriptors should be a fixed vocabulary and not contain random data. To protect
+ * against Events with random descriptors, at most {@value #MAX_SIZE} descriptors are interned, the others are not
+ * resolved and a DescriptorSet matches them by comparing the Strings.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public final class DescriptorRegistry {
+    /**
+     * the maximum number of interned descriptors
+     */
+    public static final int MAX_SIZE = 16384;
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    //guarded by ids for writing, indexed by the integer, republished after every write
+    private static volatile String[] descriptors = new String[64];
+    //guarded by ids
+    private static int count = 0;
+
+    private DescriptorRegistry() {
+    }
+
+    /**
+     * returns the integer of the descriptor, interning it if it was not yet resolved
+     * @param descriptor the descriptor
+     * @return the integer, starting with 0, or -1 if the registry is full and the descriptor was never resolved
+     */
+    public static int resolve(String descriptor) {
+        Integer id = ids.get(descriptor);
+        if (id != null)
+            return id;
+        synchronized (ids) {
+            id = ids.get(descriptor);
+            if (id != null)
+                return id;
+            if (count == MAX_SIZE)
+                return -1;
+            String[] current = descriptors;
+            if (count == current.length)
+                current = Arrays.copyOf(current, Math.min(count * 2, MAX_SIZE));
+            current[count] = descriptor;
+            //the volatile write publishes the element before the integer gets visible in ids
+            descriptors = current;
+            ids.put(descriptor, count);
+            return count++;
+        }
+    }
+
+    /**
+     * returns the integer of the descriptor without interning it
+     * @param descriptor the descriptor
+     * @return the integer or -1 if it was never resolved
+     */
+    public static int lookup(String descriptor) {
+        Integer id = ids.get(descriptor);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * returns the descriptor of the integer
+     * @param id the integer
+     * @return the descriptor or null if there is no descriptor with the integer
+     */
+    public static String getDescriptor(int id) {
+        if (id < 0 || id >= MAX_SIZE)
+            return null;
+        String[] current = descriptors;
+        String descriptor = id < current.length ? current[id] : null;
+        if (descriptor != null)
+            return descriptor;
+        //the integer may have been passed on without a happens-before edge to the interning thread
+        synchronized (ids) {
+            current = descriptors;
+            return id < current.length ? current[id] : null;
+        }
+    }
+
+    /**
+     * returns the number of interned descriptors
+     * @return the number of descriptors
+     */
+    public static int size() {
+        return ids.size();
+    }
+}
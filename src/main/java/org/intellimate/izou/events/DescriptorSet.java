@@ -0,0 +1,250 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An immutable set of descriptors, stored as a bitset of the integers of the {@link DescriptorRegistry}.
+ * <p>
+ * Matching two sets is a bitwise intersection, the hash code is computed once, so a DescriptorSet is cheap to use as a
+ * key. Create it once (e.g. when registering) and keep it.
+ * </p>
+ * <p>
+ * If the DescriptorRegistry is full (see {@link DescriptorRegistry#MAX_SIZE}), the descriptors which could not be
+ * interned are kept as Strings and matched by comparing them. They have no integer, so they are not returned by
+ * {@link #next(int)}.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public final class DescriptorSet {
+    private static final String[] NO_NAMES = new String[0];
+    /**
+     * the empty set
+     */
+    public static final DescriptorSet EMPTY = new DescriptorSet(new long[0], NO_NAMES);
+    private final long[] words;
+    //the sorted descriptors which are not interned, because the DescriptorRegistry is full
+    private final String[] names;
+    private final int hash;
+
+    private DescriptorSet(long[] words, String[] names) {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        this.words = length == words.length ? words : Arrays.copyOf(words, length);
+        this.names = names;
+        this.hash = 31 * Arrays.hashCode(this.words) + Arrays.hashCode(names);
+    }
+
+    /**
+     * creates the set of the descriptors, interning them with the {@link DescriptorRegistry} if necessary
+     * @param descriptors the descriptors, null-elements are ignored
+     * @return the set
+     */
+    public static DescriptorSet of(Collection<String> descriptors) {
+        long[] words = new long[0];
+        TreeSet<String> names = null;
+        for (String descriptor : descriptors) {
+            if (descriptor == null)
+                continue;
+            int id = DescriptorRegistry.resolve(descriptor);
+            if (id >= 0) {
+                words = set(words, id);
+            } else {
+                if (names == null)
+                    names = new TreeSet<>();
+                names.add(descriptor);
+            }
+        }
+        if (names == null)
+            return words.length == 0 ? EMPTY : new DescriptorSet(words, NO_NAMES);
+        return new DescriptorSet(words, names.toArray(new String[names.size()]));
+    }
+
+    /**
+     * creates the set of the descriptors, interning them with the {@link DescriptorRegistry} if necessary
+     * @param descriptors the descriptors, null-elements are ignored
+     * @return the set
+     */
+    public static DescriptorSet of(String... descriptors) {
+        return of(Arrays.asList(descriptors));
+    }
+
+    private static long[] set(long[] words, int id) {
+        int index = id >>> 6;
+        if (index >= words.length)
+            words = Arrays.copyOf(words, index + 1);
+        words[index] |= 1L << id;
+        return words;
+    }
+
+    /**
+     * returns whether the set contains the descriptor with the integer
+     * @param id the integer of the descriptor
+     * @return true if contained
+     */
+    public boolean contains(int id) {
+        int index = id >>> 6;
+        return id >= 0 && index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    /**
+     * returns whether the set contains the descriptor
+     * @param descriptor the descriptor
+     * @return true if contained
+     */
+    public boolean contains(String descriptor) {
+        if (descriptor == null)
+            return false;
+        int id = DescriptorRegistry.lookup(descriptor);
+        return id >= 0 ? contains(id) : Arrays.binarySearch(names, descriptor) >= 0;
+    }
+
+    /**
+     * returns whether the sets have at least one descriptor in common
+     * @param other the other set
+     * @return true if they intersect
+     */
+    public boolean intersects(DescriptorSet other) {
+        int length = Math.min(words.length, other.words.length);
+        for (int i = 0; i < length; i++) {
+            if ((words[i] & other.words[i]) != 0)
+                return true;
+        }
+        if (names.length == 0 || other.names.length == 0)
+            return false;
+        for (String name : other.names) {
+            if (Arrays.binarySearch(names, name) >= 0)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * returns whether this set contains all the descriptors of the other set
+     * @param other the other set
+     * @return true if this set is a superset
+     */
+    public boolean containsAll(DescriptorSet other) {
+        if (other.words.length > words.length)
+            return false;
+        for (int i = 0; i < other.words.length; i++) {
+            if ((words[i] & other.words[i]) != other.words[i])
+                return false;
+        }
+        for (String name : other.names) {
+            if (Arrays.binarySearch(names, name) < 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * returns the union of the sets
+     * @param other the other set
+     * @return a set containing the descriptors of both sets
+     */
+    public DescriptorSet union(DescriptorSet other) {
+        if (containsAll(other))
+            return this;
+        if (other.containsAll(this))
+            return other;
+        long[] union = Arrays.copyOf(words, Math.max(words.length, other.words.length));
+        for (int i = 0; i < other.words.length; i++) {
+            union[i] |= other.words[i];
+        }
+        String[] unionNames = names;
+        if (other.names.length > 0) {
+            TreeSet<String> merged = new TreeSet<>(Arrays.asList(names));
+            merged.addAll(Arrays.asList(other.names));
+            unionNames = merged.toArray(new String[merged.size()]);
+        }
+        return new DescriptorSet(union, unionNames);
+    }
+
+    /**
+     * returns the next integer contained in the set, used to iterate:
+     * {@code for (int id = set.next(0); id >= 0; id = set.next(id + 1))}
+     * @param from the integer to start from (inclusive)
+     * @return the next contained integer or -1 if none
+     */
+    public int next(int from) {
+        int index = from >>> 6;
+        if (from < 0 || index >= words.length)
+            return -1;
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0)
+                return index * 64 + Long.numberOfTrailingZeros(word);
+            if (++index == words.length)
+                return -1;
+            word = words[index];
+        }
+    }
+
+    /**
+     * returns whether the set is empty
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return words.length == 0 && names.length == 0;
+    }
+
+    /**
+     * returns the number of descriptors in the set
+     * @return the size
+     */
+    public int size() {
+        int size = names.length;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * returns the descriptors which are not interned, because the DescriptorRegistry was full
+     * @return the sorted descriptors, must not be modified
+     */
+    String[] getNames() {
+        return names;
+    }
+
+    /**
+     * returns the descriptors of the set
+     * @return a List of the descriptors, ordered by their integer, followed by the descriptors which are not interned
+     */
+    public List<String> getDescriptors() {
+        List<String> descriptors = new ArrayList<>(size());
+        for (int id = next(0); id >= 0; id = next(id + 1)) {
+            descriptors.add(DescriptorRegistry.getDescriptor(id));
+        }
+        descriptors.addAll(Arrays.asList(names));
+        return descriptors;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DescriptorSet)) return false;
+        DescriptorSet that = (DescriptorSet) o;
+        return hash == that.hash && Arrays.equals(words, that.words) && Arrays.equals(names, that.names);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return getDescriptors().toString();
+    }
+}
@@ -0,0 +1,127 @@
+package org.intellimate.izou.events;
+
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * A trie of descriptor-patterns, split into segments at the dots.
+ * <p>
+ * A segment of a pattern is either a literal or {@value #WILDCARD}. A wildcard matches exactly one segment, unless it
+ * is the last segment of the pattern, then it matches one or more segments: {@code izou.sound.*} matches
+ * {@code izou.sound.mute} and {@code izou.sound.player.stop}, but not {@code izou.sound};
+ * {@code izou.*.mute} matches {@code izou.sound.mute}.
+ * Matching a descriptor walks the trie once per segment, so it costs time proportional to the length of the
+ * descriptor and not to the number of patterns (only the wildcard-segments branch).
+ * </p>
+ * <p>
+ * This class is not thread-safe, it is built once and only read afterwards.
+ * </p>
+ * @param <T> the type of the values stored for the patterns
+ * @version 1.0
+ */
+class DescriptorTrie<T> {
+    /**
+     * the wildcard-segment
+     */
+    static final String WILDCARD = "*";
+    private final Node<T> root = new Node<>();
+    private int size = 0;
+
+    /**
+     * returns whether the String is a pattern (contains a wildcard)
+     * @param descriptor the descriptor or pattern
+     * @return true if a pattern
+     */
+    static boolean isPattern(String descriptor) {
+        return descriptor != null && descriptor.contains(WILDCARD);
+    }
+
+    /**
+     * stores the value for the pattern, replacing the old value
+     * @param pattern the pattern
+     * @param value the value
+     * @throws IllegalArgumentException if a wildcard is only part of a segment
+     */
+    void put(String pattern, T value) {
+        Node<T> node = root;
+        int start = 0;
+        while (true) {
+            int end = pattern.indexOf('.', start);
+            String segment = end < 0 ? pattern.substring(start) : pattern.substring(start, end);
+            if (segment.equals(WILDCARD)) {
+                if (end < 0) {
+                    if (node.rest == null)
+                        size++;
+                    node.rest = value;
+                    return;
+                }
+                if (node.wildcard == null)
+                    node.wildcard = new Node<>();
+                node = node.wildcard;
+            } else {
+                if (segment.contains(WILDCARD))
+                    throw new IllegalArgumentException("a wildcard must be a whole segment: " + pattern);
+                node = node.children.computeIfAbsent(segment, key -> new Node<>());
+            }
+            if (end < 0)
+                break;
+            start = end + 1;
+        }
+        if (node.value == null)
+            size++;
+        node.value = value;
+    }
+
+    /**
+     * passes the values of all the patterns matching the descriptor to the consumer
+     * @param descriptor the descriptor
+     * @param consumer the consumer of the values
+     */
+    void match(String descriptor, Consumer<T> consumer) {
+        if (size > 0)
+            match(root, descriptor, 0, consumer);
+    }
+
+    /**
+     * matches the remaining segments of the descriptor
+     * @param node the current node
+     * @param descriptor the descriptor
+     * @param start the index of the next segment or -1 if all segments were consumed
+     * @param consumer the consumer of the values
+     */
+    private void match(Node<T> node, String descriptor, int start, Consumer<T> consumer) {
+        if (start < 0) {
+            if (node.value != null)
+                consumer.accept(node.value);
+            return;
+        }
+        if (node.rest != null)
+            consumer.accept(node.rest);
+        int end = descriptor.indexOf('.', start);
+        int next = end < 0 ? -1 : end + 1;
+        if (!node.children.isEmpty()) {
+            Node<T> child = node.children.get(end < 0 ? descriptor.substring(start) : descriptor.substring(start, end));
+            if (child != null)
+                match(child, descriptor, next, consumer);
+        }
+        if (node.wildcard != null)
+            match(node.wildcard, descriptor, next, consumer);
+    }
+
+    /**
+     * returns the number of stored patterns
+     * @return the number of patterns
+     */
+    int size() {
+        return size;
+    }
+
+    private static final class Node<T> {
+        private final HashMap<String, Node<T>> children = new HashMap<>();
+        private Node<T> wildcard;
+        //the value of the pattern ending here
+        private T value;
+        //the value of the pattern ending here with a wildcard, matching one or more segments
+        private T rest;
+    }
+}
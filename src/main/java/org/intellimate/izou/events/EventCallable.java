@@ -2,6 +2,8 @@ package org.intellimate.izou.events;
 
 import ro.fortsoft.pf4j.AddonAccessible;
 
+import java.util.List;
+
 /**
  * Interface to fire events
  * @author LeanderK
@@ -11,8 +13,40 @@ import ro.fortsoft.pf4j.AddonAccessible;
 public interface EventCallable {
     /**
      * This method is used to fire the event.
+     * <p>
+     * If the thread is interrupted while waiting for space in the queue, the Event is not fired and the interrupt flag
+     * stays set.
+     * </p>
      * @param event the Event which should be fired
      * @throws MultipleEventsException IF the implementation doesn't allow multiple Events at once
+     * @throws EventQueueFullException if the Event got rejected because the queue (or the quota) is exhausted
      */
     void fire(EventModel event) throws MultipleEventsException;
+
+    /**
+     * This method is used to fire multiple Events at once, the Events are fired in order.
+     * @param events the Events which should be fired
+     * @throws MultipleEventsException IF the implementation doesn't allow multiple Events at once
+     * @throws EventQueueFullException if an Event got rejected because the queue (or the quota) is exhausted
+     */
+    @SuppressWarnings("rawtypes")
+    default void fireEvents(List<? extends EventModel> events) throws MultipleEventsException {
+        for (EventModel event : events) {
+            fire(event);
+        }
+    }
+
+    /**
+     * returns whether anything is interested in the Event: an EventListener, a finished-listener, a ResourceBuilder
+     * or an OutputPlugin registered for one of its descriptors (or its type).
+     * <p>
+     * Use it to skip building an expensive Event nobody would observe, the descriptors and the type are enough.
+     * An unobserved Event without a lifecycle-callback is dropped when fired.
+     * </p>
+     * @param event the Event
+     * @return true if observed, the default implementation always returns true
+     */
+    default boolean isObserved(EventModel<?> event) {
+        return true;
+    }
 }
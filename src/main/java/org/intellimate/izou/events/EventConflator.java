@@ -0,0 +1,200 @@
+package org.intellimate.izou.events;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The conflation stage in front of the EventQueue, it combines equal Events fired within a window according to their
+ * {@link ConflationPolicy}.
+ * <p>
+ * The rule of an Event is the rule of the type, or else the rule of the first descriptor having one, or else the
+ * default rule. Without any rule, Events pass through without any overhead.
+ * </p>
+ * @version 1.0
+ */
+class EventConflator {
+    private final EventDistributor eventDistributor;
+    private final EventQueue events;
+    private final ScheduledExecutorService timer;
+    private final Rule defaultRule;
+    private final ConcurrentHashMap<String, Rule> rules = new ConcurrentHashMap<>();
+    //the currently open windows, keyed by the first Event
+    private final ConcurrentHashMap<EventModel<?>, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong conflated = new AtomicLong();
+
+    /**
+     * creates a new EventConflator
+     * @param eventDistributor the EventDistributor
+     * @param events the queue where the Events are passed to
+     * @param timer the timer used to close the windows
+     * @param defaultPolicy the policy of all Events without a rule
+     * @param defaultWindow the window of all Events without a rule, in milliseconds
+     */
+    EventConflator(EventDistributor eventDistributor, EventQueue events, ScheduledExecutorService timer,
+                   ConflationPolicy defaultPolicy, long defaultWindow) {
+        this.eventDistributor = eventDistributor;
+        this.events = events;
+        this.timer = timer;
+        this.defaultRule = defaultPolicy == ConflationPolicy.NONE || defaultWindow <= 0
+                ? null
+                : new Rule(defaultPolicy, defaultWindow);
+    }
+
+    /**
+     * sets the rule of all Events with the type or descriptor
+     * @param descriptor the type or descriptor
+     * @param policy the policy, NONE disables conflation for the descriptor
+     * @param window the window in milliseconds
+     */
+    void setRule(String descriptor, ConflationPolicy policy, long window) {
+        rules.put(descriptor, new Rule(window > 0 ? policy : ConflationPolicy.NONE, window));
+    }
+
+    /**
+     * removes the rule of the type or descriptor
+     * @param descriptor the type or descriptor
+     */
+    void removeRule(String descriptor) {
+        rules.remove(descriptor);
+    }
+
+    /**
+     * offers the Event to the conflation stage
+     * @param dispatch the Event
+     * @param lane the lane of the Event
+     * @return true if the Event was consumed (held back or conflated), false if it should be added to the queue
+     */
+    boolean offer(EventDispatch dispatch, int lane) {
+        if (defaultRule == null && rules.isEmpty())
+            return false;
+        EventModel<?> event = dispatch.getEvent();
+        Rule rule = getRule(event);
+        if (rule == null || rule.policy == ConflationPolicy.NONE)
+            return false;
+        while (true) {
+            Window created = new Window(rule.policy, rule.policy == ConflationPolicy.LATEST ? dispatch : null, lane);
+            Window current = windows.putIfAbsent(event, created);
+            if (current == null) {
+                timer.schedule(() -> close(event, created), rule.window, TimeUnit.MILLISECONDS);
+                return rule.policy == ConflationPolicy.LATEST;
+            }
+            if (current.policy == ConflationPolicy.FIRST) {
+                conflated(dispatch);
+                return true;
+            }
+            EventDispatch replaced = current.replace(dispatch);
+            if (replaced != null) {
+                conflated(replaced);
+                return true;
+            }
+            //the window got closed in the meantime
+            windows.remove(event, current);
+        }
+    }
+
+    /**
+     * returns the number of Events dropped because they were conflated
+     * @return the number of conflated Events
+     */
+    long getConflatedCount() {
+        return conflated.get();
+    }
+
+    private Rule getRule(EventModel<?> event) {
+        if (rules.isEmpty())
+            return defaultRule;
+        Rule rule = rules.get(event.getType());
+        if (rule != null)
+            return rule;
+        List<String> descriptors = event.getDescriptors();
+        for (int i = 0; i < descriptors.size(); i++) {
+            rule = rules.get(descriptors.get(i));
+            if (rule != null)
+                return rule;
+        }
+        return defaultRule;
+    }
+
+    private void conflated(EventDispatch dispatch) {
+        conflated.incrementAndGet();
+        dispatch.lifecycle(EventLifeCycle.CANCELED);
+    }
+
+    /**
+     * closes the window and passes the held back Event to the queue
+     * @param event the key of the window
+     * @param window the window
+     */
+    private void close(EventModel<?> event, Window window) {
+        windows.remove(event, window);
+        EventDispatch latest = window.close();
+        if (latest == null)
+            return;
+        //the queue may block, the timer must not
+        eventDistributor.getMain().getThreadPoolManager().getIzouThreadPool().submit(() -> {
+            try {
+                events.put(latest, window.lane);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                latest.lifecycle(EventLifeCycle.CANCELED);
+            } catch (EventQueueFullException e) {
+                eventDistributor.debug("unable to pass the conflated Event " + latest.getEvent() + ": " + e.getMessage());
+                latest.lifecycle(EventLifeCycle.CANCELED);
+            }
+        });
+    }
+
+    /**
+     * the policy and the length of the window
+     */
+    private static final class Rule {
+        private final ConflationPolicy policy;
+        private final long window;
+
+        private Rule(ConflationPolicy policy, long window) {
+            this.policy = policy;
+            this.window = window;
+        }
+    }
+
+    /**
+     * one open window
+     */
+    private static final class Window {
+        private final ConflationPolicy policy;
+        private final int lane;
+        //the Event held back (LATEST), null if closed or FIRST
+        private EventDispatch latest;
+
+        private Window(ConflationPolicy policy, EventDispatch latest, int lane) {
+            this.policy = policy;
+            this.latest = latest;
+            this.lane = lane;
+        }
+
+        /**
+         * replaces the held back Event
+         * @param dispatch the new Event
+         * @return the replaced Event or null if the window is already closed
+         */
+        private synchronized EventDispatch replace(EventDispatch dispatch) {
+            EventDispatch replaced = latest;
+            if (replaced != null)
+                latest = dispatch;
+            return replaced;
+        }
+
+        /**
+         * closes the window
+         * @return the held back Event or null
+         */
+        private synchronized EventDispatch close() {
+            EventDispatch result = latest;
+            latest = null;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.intellimate.izou.events;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds the state of one Event while it gets dispatched by the EventDistributor.
+ * <p>
+ * It is also responsible for delivering the lifecycle-callbacks of the Event. Events without a lifecycle-callback
+ * (see {@link EventModel#hasLifecycleCallback()}) are skipped entirely. In the coalesced mode, all the stages reached
+ * while a delivery is pending are delivered by one task of the AddOn-ThreadPool, in the order they were reached.
+ * </p>
+ * @version 1.0
+ */
+class EventDispatch {
+    private final EventDistributor eventDistributor;
+    private final EventModel<?> event;
+    private final boolean coalesced;
+    private final ConcurrentLinkedQueue<EventLifeCycle> pendingStages;
+    private final AtomicBoolean deliveryScheduled;
+    //delivers the pending stages, bound once so scheduling a delivery does not allocate
+    private final Runnable delivery;
+    private final PublisherQuota quota;
+    private final EventPriority priority;
+    //the position in the EventQueue
+    private long sequence;
+    //System.nanoTime() when added to the EventQueue
+    private long enqueued;
+    //the offset in the durable log, -1 if not logged
+    private volatile long logOffset = -1;
+    //the latencies of the type of the Event, null if not recording latencies
+    private final EventLatencies.Histograms latencies;
+    //System.nanoTime() when created and when the last measured stage began
+    private final long created;
+    private long mark;
+    //the last stage reached, null if none
+    private EventLifeCycle reached;
+    private boolean ended = false;
+    //the time to live in nanoseconds, 0 if the Event never expires
+    private final long timeToLive;
+    //the reference of the EventDistributor if the Event is pooled, null if not pooled or already released
+    private PooledEvent pooled;
+    //the node of the Event in its trace, null if not tracing
+    private final TraceNode trace;
+    //true if the resources and the listeners are skipped
+    private boolean shortPath = false;
+
+    /**
+     * creates a new EventDispatch
+     * @param eventDistributor the EventDistributor dispatching the Event
+     * @param event the Event to dispatch
+     * @param coalesced true if the lifecycle-callbacks should be coalesced
+     * @param quota the quota of the publisher or null if not fired by a publisher
+     */
+    EventDispatch(EventDistributor eventDistributor, EventModel<?> event, boolean coalesced, PublisherQuota quota) {
+        this.eventDistributor = eventDistributor;
+        this.event = event;
+        this.coalesced = coalesced;
+        this.quota = quota;
+        EventPriority priority = event.getPriority();
+        this.priority = priority != null ? priority : EventPriority.NORMAL;
+        if (coalesced && event.hasLifecycleCallback()) {
+            pendingStages = new ConcurrentLinkedQueue<>();
+            deliveryScheduled = new AtomicBoolean(false);
+            delivery = this::deliverPendingStages;
+        } else {
+            pendingStages = null;
+            deliveryScheduled = null;
+            delivery = null;
+        }
+        EventLatencies eventLatencies = eventDistributor.getLatenciesOrNull();
+        latencies = eventLatencies != null ? eventLatencies.forType(event.getType()) : null;
+        long eventTimeToLive = event.getTimeToLive();
+        timeToLive = TimeUnit.MILLISECONDS.toNanos(eventTimeToLive > 0
+                ? eventTimeToLive : eventDistributor.getDefaultTimeToLive());
+        created = latencies != null || timeToLive > 0 ? System.nanoTime() : 0;
+        pooled = event instanceof PooledEvent ? (PooledEvent) event : null;
+        //created on the firing thread, which determines the parent
+        EventTraces traces = eventDistributor.getTracesOrNull();
+        trace = traces != null ? traces.fired(event) : null;
+    }
+
+    /**
+     * returns the Event
+     * @return the Event
+     */
+    EventModel<?> getEvent() {
+        return event;
+    }
+
+    /**
+     * returns the node of the Event in its trace
+     * @return the node or null if not tracing
+     */
+    TraceNode getTrace() {
+        return trace;
+    }
+
+    /**
+     * marks the Event to skip the resources and the listeners, because nobody is interested in them
+     */
+    void setShortPath() {
+        shortPath = true;
+    }
+
+    /**
+     * returns whether the Event skips the resources and the listeners
+     * @return true if the short path is taken
+     */
+    boolean isShortPath() {
+        return shortPath;
+    }
+
+    /**
+     * returns the quota of the publisher
+     * @return the quota or null if not fired by a publisher
+     */
+    PublisherQuota getQuota() {
+        return quota;
+    }
+
+    /**
+     * returns the priority of the Event
+     * @return the priority, never null
+     */
+    EventPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * returns whether the time to live of the Event is exceeded
+     * @return true if expired
+     */
+    boolean isExpired() {
+        return timeToLive > 0 && System.nanoTime() - created > timeToLive;
+    }
+
+    long getEnqueued() {
+        return enqueued;
+    }
+
+    void setEnqueued(long enqueued) {
+        this.enqueued = enqueued;
+    }
+
+    long getLogOffset() {
+        return logOffset;
+    }
+
+    void setLogOffset(long logOffset) {
+        this.logOffset = logOffset;
+    }
+
+    /**
+     * marks the Event as completely processed or discarded, it will not be replayed from the durable log and a
+     * PooledEvent gets released by the EventDistributor.
+     * It is safe to call this method multiple times.
+     */
+    void completed() {
+        if (ended) {
+            ended = false;
+            long now = System.nanoTime();
+            latencies.record(EventLatencies.Stage.FINISH_LISTENERS, now - mark);
+            latencies.record(EventLatencies.Stage.TOTAL, now - created);
+        }
+        long offset = logOffset;
+        if (offset >= 0) {
+            logOffset = -1;
+            eventDistributor.logCompleted(offset);
+        }
+        if (trace != null)
+            eventDistributor.getTracesOrNull().completed(trace);
+        PooledEvent toRelease = pooled;
+        if (toRelease != null) {
+            pooled = null;
+            toRelease.release();
+        }
+    }
+
+    long getSequence() {
+        return sequence;
+    }
+
+    void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * notifies the Event that the stage was reached.
+     * It is not blocking!
+     * @param stage the stage reached
+     */
+    void lifecycle(EventLifeCycle stage) {
+        if (latencies != null)
+            measure(stage);
+        if (trace != null) {
+            if (stage == EventLifeCycle.START)
+                trace.started(System.nanoTime());
+            else if (stage == EventLifeCycle.CANCELED)
+                trace.canceled();
+        }
+        if (event.hasLifecycleCallback())
+            deliver(stage);
+        //after scheduling the delivery, which retains a PooledEvent
+        if (stage == EventLifeCycle.CANCELED)
+            completed();
+    }
+
+    /**
+     * delivers the stage to the lifecycle-callback, a PooledEvent is retained until delivered
+     * @param stage the stage reached
+     */
+    private void deliver(EventLifeCycle stage) {
+        if (!coalesced) {
+            PooledEvent.retain(event);
+            eventDistributor.submit(() -> {
+                TraceNode previous = EventTraces.enter(trace);
+                try {
+                    event.lifecycleCallback(stage);
+                } finally {
+                    EventTraces.exit(trace, previous);
+                    PooledEvent.release(event);
+                }
+            });
+            return;
+        }
+        pendingStages.add(stage);
+        if (deliveryScheduled.compareAndSet(false, true)) {
+            PooledEvent.retain(event);
+            eventDistributor.getMain().getThreadPoolManager().getAddOnsThreadPool().execute(delivery);
+        }
+    }
+
+    /**
+     * records the latency of the stage which ended with the transition
+     * @param stage the stage reached
+     */
+    private void measure(EventLifeCycle stage) {
+        long now = System.nanoTime();
+        EventLifeCycle previous = reached;
+        reached = stage;
+        switch (stage) {
+            case START:
+                latencies.record(EventLatencies.Stage.QUEUE, now - created);
+                break;
+            case APPROVED:
+                latencies.record(EventLatencies.Stage.CONTROLLERS, now - mark);
+                break;
+            case CANCELED:
+                //only canceled by the EventsControllers, not before the processing started or when expired later
+                if (previous == EventLifeCycle.START)
+                    latencies.record(EventLatencies.Stage.CONTROLLERS, now - mark);
+                break;
+            case LISTENERS:
+                latencies.record(EventLatencies.Stage.RESOURCES, now - mark);
+                break;
+            case OUTPUT:
+                latencies.record(EventLatencies.Stage.LISTENERS, now - mark);
+                break;
+            case ENDED:
+                ended = true;
+                latencies.record(EventLatencies.Stage.OUTPUT, now - mark);
+                break;
+            default:
+                break;
+        }
+        mark = now;
+    }
+
+    /**
+     * delivers all the pending stages in order
+     */
+    private void deliverPendingStages() {
+        TraceNode previous = EventTraces.enter(trace);
+        try {
+            do {
+                try {
+                    EventLifeCycle stage;
+                    while ((stage = pendingStages.poll()) != null) {
+                        try {
+                            event.lifecycleCallback(stage);
+                        } catch (RuntimeException | LinkageError e) {
+                            eventDistributor.getMain().getThreadPoolManager().handleThrowable(e, event);
+                        }
+                    }
+                } finally {
+                    //otherwise any other Throwable would leave the flag set and the later stages undelivered
+                    deliveryScheduled.set(false);
+                }
+                //a stage may have been added after the poll, but before the flag was reset
+            } while (!pendingStages.isEmpty() && deliveryScheduled.compareAndSet(false, true));
+        } finally {
+            EventTraces.exit(trace, previous);
+            PooledEvent.release(event);
+        }
+    }
+}
@@ -5,30 +5,569 @@ import org.intellimate.izou.util.IzouModule;
 import org.intellimate.izou.identification.Identification;
 import org.intellimate.izou.identification.IllegalIDException;
 import org.intellimate.izou.main.Main;
-import org.intellimate.izou.resource.ResourceModel;
+import org.intellimate.izou.resource.ResourceManager;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This class gets all the Events from all registered EventPublisher, generates Resources and passes them to the
  * OutputManager. Can also be used to fire Events Concurrently.
+ * <p>
+ * The Events are processed on multiple lanes (see {@link EventLane}) in the order of their {@link EventPriority}. The
+ * processing can be configured with system properties, see the constants ending with {@code _PROPERTY}.
+ * </p>
  */
-public class EventDistributor extends IzouModule implements Runnable, AddonThreadPoolUser {
-    private BlockingQueue<EventModel<?>> events = new LinkedBlockingQueue<>();
+public class EventDistributor extends IzouModule implements AddonThreadPoolUser {
+    /**
+     * the property used to configure the number of lanes, the order is kept within one partition (default: the number
+     * of processors)
+     */
+    public static final String LANES_PROPERTY = "izou.events.lanes";
+    /**
+     * the property used to configure how the Events get partitioned onto the lanes (source or type, default: source)
+     */
+    public static final String PARTITION_PROPERTY = "izou.events.partition";
+    /**
+     * the property used to configure the capacity of the queues between the stages of a pipelined lane. The stages
+     * (EventsControllers and resources, listeners, output and finished-listeners) of a pipelined lane run on their own
+     * threads, so different Events of one partition can be in different stages at once (default: 0, every lane
+     * processes one Event after another)
+     */
+    public static final String PIPELINE_PROPERTY = "izou.events.pipeline";
+    /**
+     * the property used to configure the capacity of the {@link ListenerMailbox} of every listener, so a slow listener
+     * only delays itself (default: 0, the EventDistributor waits up to 1 second for the listeners)
+     */
+    public static final String MAILBOX_PROPERTY = "izou.events.mailbox";
+    /**
+     * the property used to configure the OverflowPolicy of the mailboxes of the listeners (block, drop-oldest or
+     * drop-newest, default: drop-oldest)
+     */
+    public static final String MAILBOX_OVERFLOW_PROPERTY = "izou.events.mailbox.overflow";
+    /**
+     * the property used to configure the time in milliseconds a full mailbox with the OverflowPolicy BLOCK is waited
+     * for, the lane and all the Events of its partition stall meanwhile (default: 1000)
+     */
+    public static final String MAILBOX_TIMEOUT_PROPERTY = "izou.events.mailbox.timeout";
+    /**
+     * the property used to configure the delivery of the lifecycle-callbacks (coalesced or immediate, default:
+     * coalesced into as few tasks as possible)
+     */
+    public static final String LIFECYCLE_PROPERTY = "izou.events.lifecycle";
+    /**
+     * the property used to configure the capacity of the {@link EventQueue} (default: unbounded)
+     */
+    public static final String QUEUE_CAPACITY_PROPERTY = "izou.events.queue.capacity";
+    /**
+     * the property used to configure the OverflowPolicy of the EventQueue (block, reject, drop-oldest or drop-newest,
+     * default: block)
+     */
+    public static final String QUEUE_OVERFLOW_PROPERTY = "izou.events.queue.overflow";
+    /**
+     * the property used to configure the default quota of every publisher (default: 0, unlimited)
+     */
+    public static final String QUEUE_QUOTA_PROPERTY = "izou.events.queue.quota";
+    /**
+     * the property used to configure the time in milliseconds after which a waiting Event of a lower priority gets
+     * promoted (default: 2000)
+     */
+    public static final String PRIORITY_STARVATION_PROPERTY = "izou.events.priority.starvation";
+    /**
+     * the property used to configure the default conflation-window in milliseconds (default: 0, disabled), rules for
+     * single types or descriptors can be set with {@link #setConflationPolicy(String, ConflationPolicy, long)}
+     */
+    public static final String CONFLATION_WINDOW_PROPERTY = "izou.events.conflation.window";
+    /**
+     * the property used to configure the default {@link ConflationPolicy} (first or latest, default: latest)
+     */
+    public static final String CONFLATION_POLICY_PROPERTY = "izou.events.conflation.policy";
+    /**
+     * the property used to enable the durable event-log (see {@link EventLog}) in the system-data folder, the Events
+     * not completely processed are replayed after a restart (default: false)
+     */
+    public static final String DURABLE_PROPERTY = "izou.events.durable";
+    /**
+     * the property used to configure the size of the segments of the durable event-log in bytes (default: 16 MiB)
+     */
+    public static final String DURABLE_SEGMENT_PROPERTY = "izou.events.durable.segment";
+    /**
+     * the property used to configure whether firing an Event waits until it is written to disk (default: true)
+     */
+    public static final String DURABLE_SYNC_PROPERTY = "izou.events.durable.sync";
+    /**
+     * the property used to configure the file (relative to the logs folder) all the fired Events are recorded to, the
+     * recording can be replayed with {@link EventReplay} (default: not recorded)
+     */
+    public static final String RECORD_PROPERTY = "izou.events.record";
+    /**
+     * the property used to enable dropping the Events nobody is interested in (see {@link #isObserved(EventModel)})
+     * and without a lifecycle-callback when fired (default: false)
+     */
+    public static final String INTEREST_PROPERTY = "izou.events.interest";
+    /**
+     * the property used to configure the time to live in milliseconds of the Events which do not set one, expired
+     * Events are canceled (default: 0, never expire)
+     */
+    public static final String TTL_PROPERTY = "izou.events.ttl";
+    /**
+     * the property used to disable the recording of the latencies (see {@link EventLatencies}, default: true)
+     */
+    public static final String LATENCY_PROPERTY = "izou.events.latency";
+    /**
+     * the property used to configure the file (relative to the logs folder) the latencies are written to every minute
+     * and when the EventDistributor stops (default: not written)
+     */
+    public static final String LATENCY_DUMP_PROPERTY = "izou.events.latency.dump";
+    /**
+     * the property used to configure the maximum number of recycled Events kept by the {@link EventPool} (default: 256)
+     */
+    public static final String POOL_PROPERTY = "izou.events.pool";
+    /**
+     * the property used to enable logging the PooledEvents which were never released (default: true if
+     * debug-logging is enabled)
+     */
+    public static final String POOL_LEAKS_PROPERTY = "izou.events.pool.leaks";
+    /**
+     * the property used to configure the number of traces of cascades kept (see {@link EventTraces}, default: 64, 0
+     * disables the tracing)
+     */
+    public static final String TRACE_PROPERTY = "izou.events.trace";
+    /**
+     * the property used to configure the file (relative to the logs folder) the traces are written to every minute and
+     * when the EventDistributor stops (default: not written)
+     */
+    public static final String TRACE_DUMP_PROPERTY = "izou.events.trace.dump";
+    /**
+     * the property used to configure the maximum number of Events per second of one source, see {@link StormGuard}
+     * (default: 0, unlimited)
+     */
+    public static final String STORM_SOURCE_PROPERTY = "izou.events.storm.source";
+    /**
+     * the property used to configure the maximum number of Events per second of one type (default: 0, unlimited)
+     */
+    public static final String STORM_TYPE_PROPERTY = "izou.events.storm.type";
+    /**
+     * the property used to configure the maximum depth of an Event in its cascade, only checked if tracing (default: 0,
+     * unlimited)
+     */
+    public static final String STORM_DEPTH_PROPERTY = "izou.events.storm.depth";
+    /**
+     * the property used to configure what happens to a source exceeding its own rate or feeding its own cascade
+     * (throttle or quarantine, default: throttle)
+     */
+    public static final String STORM_ACTION_PROPERTY = "izou.events.storm.action";
+    /**
+     * the property used to configure the number of Events per second accepted from a throttled source (default: 10)
+     */
+    public static final String STORM_THROTTLE_PROPERTY = "izou.events.storm.throttle";
+    /**
+     * the property used to configure the time in milliseconds a source stays restricted after its last storm (default:
+     * 10000)
+     */
+    public static final String STORM_COOLDOWN_PROPERTY = "izou.events.storm.cooldown";
+    /**
+     * the number of stages of the processing of an Event, see {@link #processStage(EventDispatch, int)}
+     */
+    static final int STAGE_COUNT = 4;
+    private final EventQueue events;
+    private final BlockingQueue<EventModel<?>> eventsView;
+    private final EventConflator conflator;
+    //null if not durable
+    private final EventLog log;
+    //null if not recording
+    private final EventRecorder recorder;
+    //null if not recording the latencies
+    private final EventLatencies latencies;
+    //null if the latencies are not written to a file
+    private final File latencyDump;
+    //null if not tracing
+    private final EventTraces traces;
+    //null if the traces are not written to a file
+    private final File traceDump;
+    //the Events recovered from the durable log, replayed after the addons are registered
+    private SortedMap<Long, EventRecord> recovered = null;
+    private final EventLane[] lanes;
+    private final int defaultQuota;
+    private final long defaultTimeToLive;
+    private final LongAdder expired = new LongAdder();
+    private final boolean dropUnobserved;
+    private final LongAdder unobserved = new LongAdder();
+    private final LongAdder shortPath = new LongAdder();
+    private final EventPool eventPool;
+    //null if the storm-detection is disabled
+    private final StormGuard stormGuard;
+    private final boolean partitionByType;
+    private final boolean coalesceLifecycle;
     private ConcurrentHashMap<Identification, EventPublisher> registered = new ConcurrentHashMap<>();
     //here are all the Instances to to control the Event-dispatching stored
     private final ConcurrentLinkedQueue<EventsControllerModel> eventsControllers = new ConcurrentLinkedQueue<>();
+    //the cached decisions of the EventsControllers
+    private final VerdictCache verdicts = new VerdictCache();
     //here are all the Listeners stored
-    private final ConcurrentHashMap<String, ArrayList<EventListenerModel>> listeners = new ConcurrentHashMap<>();
+    private final ListenerRoutingTable listeners = new ListenerRoutingTable();
     //here are all the Listeners stored that get called when an Event finishes processing
-    private final ConcurrentHashMap<String, ArrayList<EventListenerModel>> finishListeners = new ConcurrentHashMap<>();
-    private boolean stop = false;
+    private final ListenerRoutingTable finishListeners = new ListenerRoutingTable();
+    //the capacity of the mailboxes, 0 if disabled
+    private final int mailboxCapacity;
+    private final OverflowPolicy mailboxOverflowPolicy;
+    private final long mailboxTimeout;
+    private final ConcurrentHashMap<EventListenerModel, ListenerMailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<EventListenerModel, ListenerMailbox> finishMailboxes = new ConcurrentHashMap<>();
+    //the reusable fan-out of every thread processing Events
+    private final ThreadLocal<ListenerFanOut> fanOuts = ThreadLocal.withInitial(() ->
+            new ListenerFanOut(this, getMain().getThreadPoolManager().getAddOnsThreadPool()));
 
     public EventDistributor(Main main) {
         super(main);
-        main.getThreadPoolManager().getIzouThreadPool().submit(this);
+        int laneCount = Math.max(1, Integer.getInteger(LANES_PROPERTY, Runtime.getRuntime().availableProcessors()));
+        partitionByType = "type".equalsIgnoreCase(System.getProperty(PARTITION_PROPERTY, "source"));
+        coalesceLifecycle = !"immediate".equalsIgnoreCase(System.getProperty(LIFECYCLE_PROPERTY, "coalesced"));
+        defaultQuota = Integer.getInteger(QUEUE_QUOTA_PROPERTY, 0);
+        defaultTimeToLive = Math.max(0, Long.getLong(TTL_PROPERTY, 0));
+        dropUnobserved = Boolean.getBoolean(INTEREST_PROPERTY);
+        mailboxCapacity = Math.max(0, Integer.getInteger(MAILBOX_PROPERTY, 0));
+        OverflowPolicy mailboxPolicy = OverflowPolicy.parse(System.getProperty(MAILBOX_OVERFLOW_PROPERTY),
+                OverflowPolicy.DROP_OLDEST);
+        if (mailboxPolicy == OverflowPolicy.REJECT) {
+            error("the mailboxes of the listeners can not reject Events, nobody would notice, using drop-oldest");
+            mailboxPolicy = OverflowPolicy.DROP_OLDEST;
+        }
+        mailboxOverflowPolicy = mailboxPolicy;
+        mailboxTimeout = Long.getLong(MAILBOX_TIMEOUT_PROPERTY, 1000);
+        events = new EventQueue(laneCount, Integer.getInteger(QUEUE_CAPACITY_PROPERTY, Integer.MAX_VALUE),
+                OverflowPolicy.parse(System.getProperty(QUEUE_OVERFLOW_PROPERTY), OverflowPolicy.BLOCK),
+                Long.getLong(PRIORITY_STARVATION_PROPERTY, 2000));
+        eventsView = new EventQueueView(events);
+        conflator = new EventConflator(this, events, main.getThreadPoolManager().getTimer(),
+                ConflationPolicy.parse(System.getProperty(CONFLATION_POLICY_PROPERTY), ConflationPolicy.LATEST),
+                Long.getLong(CONFLATION_WINDOW_PROPERTY, 0));
+        log = Boolean.getBoolean(DURABLE_PROPERTY) ? openLog(main) : null;
+        recorder = System.getProperty(RECORD_PROPERTY) != null ? openRecorder(main) : null;
+        boolean recordLatencies = !"false".equalsIgnoreCase(System.getProperty(LATENCY_PROPERTY, "true"));
+        latencies = recordLatencies ? new EventLatencies() : null;
+        latencyDump = recordLatencies && System.getProperty(LATENCY_DUMP_PROPERTY) != null
+                ? openLatencyDump(main) : null;
+        int traceCapacity = Integer.getInteger(TRACE_PROPERTY, 64);
+        traces = traceCapacity > 0 ? new EventTraces(traceCapacity) : null;
+        traceDump = traces != null && System.getProperty(TRACE_DUMP_PROPERTY) != null ? openTraceDump(main) : null;
+        StormGuard guard = new StormGuard(this, Integer.getInteger(STORM_SOURCE_PROPERTY, 0),
+                Integer.getInteger(STORM_TYPE_PROPERTY, 0), Integer.getInteger(STORM_DEPTH_PROPERTY, 0),
+                Long.getLong(STORM_COOLDOWN_PROPERTY, 10000),
+                "quarantine".equalsIgnoreCase(System.getProperty(STORM_ACTION_PROPERTY, "throttle")),
+                Integer.getInteger(STORM_THROTTLE_PROPERTY, 10));
+        stormGuard = guard.isEnabled() ? guard : null;
+        eventPool = new EventPool(this, Integer.getInteger(POOL_PROPERTY, 256),
+                Boolean.parseBoolean(System.getProperty(POOL_LEAKS_PROPERTY, String.valueOf(isDebugEnabled()))));
+        int pipelineCapacity = Integer.getInteger(PIPELINE_PROPERTY, 0);
+        lanes = new EventLane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new EventLane(this, events, i, pipelineCapacity);
+            main.getThreadPoolManager().getIzouThreadPool().submit(lanes[i]);
+        }
+    }
+
+    /**
+     * opens the durable event-log and recovers the Events which were not completely processed
+     * @param main the instance of Main
+     * @return the event-log or null if unable to open
+     */
+    private EventLog openLog(Main main) {
+        File directory = new File(main.getFileSystemManager().getSystemDataLocation(), "events");
+        try {
+            EventLog eventLog = new EventLog(this, directory,
+                    Integer.getInteger(DURABLE_SEGMENT_PROPERTY, 16 * 1024 * 1024),
+                    !"false".equalsIgnoreCase(System.getProperty(DURABLE_SYNC_PROPERTY, "true")));
+            recovered = eventLog.recover();
+            main.getThreadPoolManager().getIzouThreadPool().submit(eventLog);
+            debug("opened the event-log at " + directory + ", recovered " + recovered.size() + " Events");
+            return eventLog;
+        } catch (IOException e) {
+            error("unable to open the event-log at " + directory + ", the Events are not durable", e);
+            return null;
+        }
+    }
+
+    /**
+     * creates the file of the recording, which gets flushed every second
+     * @param main the instance of Main
+     * @return the recorder or null if unable to create the file
+     */
+    private EventRecorder openRecorder(Main main) {
+        File file = new File(System.getProperty(RECORD_PROPERTY));
+        if (!file.isAbsolute())
+            file = new File(main.getFileSystemManager().getLogsLocation(), file.getPath());
+        try {
+            EventRecorder eventRecorder = new EventRecorder(this, file);
+            main.getThreadPoolManager().getTimer().scheduleWithFixedDelay(eventRecorder::flush, 1, 1, TimeUnit.SECONDS);
+            debug("recording all Events to " + file);
+            return eventRecorder;
+        } catch (IOException e) {
+            error("unable to record the Events to " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * resolves the file the latencies are written to and schedules writing them every minute
+     * @param main the instance of Main
+     * @return the file
+     */
+    private File openLatencyDump(Main main) {
+        File file = new File(System.getProperty(LATENCY_DUMP_PROPERTY));
+        if (!file.isAbsolute())
+            file = new File(main.getFileSystemManager().getLogsLocation(), file.getPath());
+        File dump = file;
+        main.getThreadPoolManager().getTimer()
+                .scheduleWithFixedDelay(() -> dumpLatencies(dump), 1, 1, TimeUnit.MINUTES);
+        debug("writing the latencies to " + file);
+        return file;
+    }
+
+    /**
+     * resolves the file the traces are written to and schedules writing them every minute
+     * @param main the instance of Main
+     * @return the file
+     */
+    private File openTraceDump(Main main) {
+        File file = new File(System.getProperty(TRACE_DUMP_PROPERTY));
+        if (!file.isAbsolute())
+            file = new File(main.getFileSystemManager().getLogsLocation(), file.getPath());
+        File dump = file;
+        main.getThreadPoolManager().getTimer()
+                .scheduleWithFixedDelay(() -> dumpTraces(dump), 1, 1, TimeUnit.MINUTES);
+        debug("writing the traces to " + file);
+        return file;
+    }
+
+    /**
+     * returns whether anything is interested in the Event: an EventListener, a finished-listener, a ResourceBuilder
+     * or an OutputPlugin registered for one of its descriptors (or its type).
+     * <p>
+     * The registrations are looked up live, so the answer changes as soon as something (un)registers.
+     * </p>
+     * @param event the Event
+     * @return true if observed
+     */
+    public boolean isObserved(EventModel<?> event) {
+        return listeners.getListeners(event).length > 0
+                || finishListeners.getListeners(event).length > 0
+                || getMain().getResourceManager().isSubscribed(event)
+                || getMain().getOutputManager().isSubscribed(event);
+    }
+
+    /**
+     * returns whether the Event should be dropped because nobody is interested in it and it has no
+     * lifecycle-callback, counts the dropped Events and releases a dropped PooledEvent
+     * @param event the Event
+     * @return true if the Event should be dropped
+     */
+    private boolean isDroppedUnobserved(EventModel<?> event) {
+        if (!dropUnobserved || event.hasLifecycleCallback() || isObserved(event))
+            return false;
+        unobserved.increment();
+        PooledEvent.release(event);
+        return true;
+    }
+
+    /**
+     * passes the fired Event through the {@link StormGuard}, a rejected Event gets canceled
+     * @param dispatch the Event
+     * @return true if the Event was rejected
+     */
+    private boolean isRejectedByStormGuard(EventDispatch dispatch) {
+        if (stormGuard == null || stormGuard.admit(dispatch.getEvent(), dispatch.getTrace()))
+            return false;
+        dispatch.lifecycle(EventLifeCycle.CANCELED);
+        return true;
+    }
+
+    /**
+     * returns the number of event-storms detected (see {@value #STORM_SOURCE_PROPERTY})
+     * @return the number of storms
+     */
+    public long getStormCount() {
+        return stormGuard != null ? stormGuard.getStormCount() : 0;
+    }
+
+    /**
+     * returns the number of Events rejected because of an event-storm
+     * @return the number of rejected Events
+     */
+    public long getStormRejectedEvents() {
+        return stormGuard != null ? stormGuard.getRejectedCount() : 0;
+    }
+
+    /**
+     * returns the sources which are currently throttled or quarantined because of an event-storm
+     * @return a sorted List of the IDs of the sources
+     */
+    public List<String> getStormRestrictedSources() {
+        return stormGuard != null ? stormGuard.getRestricted() : Collections.emptyList();
+    }
+
+    /**
+     * lifts the restriction of a source throttled or quarantined because of an event-storm before its cooldown ended
+     * @param identification the Identification of the source
+     * @return true if the source was restricted
+     */
+    public boolean releaseStormRestriction(Identification identification) {
+        return stormGuard != null && stormGuard.release(identification.getID());
+    }
+
+    /**
+     * returns the number of Events dropped because nobody was interested in them
+     * @return the number of unobserved Events
+     */
+    public long getUnobservedEvents() {
+        return unobserved.sum();
+    }
+
+    /**
+     * returns the number of Events which took the short path, because they had no listener, no finished-listener and
+     * no subscribed ResourceBuilder
+     * @return the number of Events
+     */
+    public long getShortPathEvents() {
+        return shortPath.sum();
+    }
+
+    /**
+     * returns the pool of the {@link PooledEvent}s
+     * @return the EventPool
+     */
+    public EventPool getEventPool() {
+        return eventPool;
+    }
+
+    /**
+     * returns the time to live of the Events which do not set one
+     * @return the time to live in milliseconds, 0 if they never expire
+     */
+    long getDefaultTimeToLive() {
+        return defaultTimeToLive;
+    }
+
+    /**
+     * returns the number of Events canceled because they expired
+     * @return the number of expired Events
+     */
+    public long getExpiredEvents() {
+        return expired.sum();
+    }
+
+    /**
+     * returns the recorded latencies of the stages of the Events
+     * @return the latencies or empty if disabled with the property {@value #LATENCY_PROPERTY}
+     */
+    public Optional<EventLatencies> getLatencies() {
+        return Optional.ofNullable(latencies);
+    }
+
+    /**
+     * returns the recorded latencies of the stages of the Events
+     * @return the latencies or null if disabled
+     */
+    EventLatencies getLatenciesOrNull() {
+        return latencies;
+    }
+
+    /**
+     * writes the recorded latencies to the file, does nothing if disabled
+     * @param file the file to write to
+     */
+    public void dumpLatencies(File file) {
+        if (latencies == null)
+            return;
+        try {
+            latencies.dump(file);
+        } catch (IOException e) {
+            error("unable to write the latencies to " + file, e);
+        }
+    }
+
+    /**
+     * returns the recorded traces of the cascades of Events
+     * @return the traces or empty if disabled with the property {@value #TRACE_PROPERTY}
+     */
+    public Optional<EventTraces> getTraces() {
+        return Optional.ofNullable(traces);
+    }
+
+    /**
+     * returns the recorded traces of the cascades of Events
+     * @return the traces or null if disabled
+     */
+    EventTraces getTracesOrNull() {
+        return traces;
+    }
+
+    /**
+     * writes the recorded traces to the file, does nothing if disabled
+     * @param file the file to write to
+     */
+    public void dumpTraces(File file) {
+        if (traces == null)
+            return;
+        try {
+            traces.dump(file);
+        } catch (IOException e) {
+            error("unable to write the traces to " + file, e);
+        }
+    }
+
+    /**
+     * replays all the Events recovered from the durable log, should be called after the addons are registered.
+     * <p>
+     * Events whose source is not registered anymore or which expired while izou was down are discarded. Does nothing if
+     * not durable or if already replayed.
+     * </p>
+     */
+    public void replayRecoveredEvents() {
+        SortedMap<Long, EventRecord> toReplay;
+        synchronized (this) {
+            toReplay = recovered;
+            recovered = null;
+        }
+        if (toReplay == null || toReplay.isEmpty())
+            return;
+        debug("replaying " + toReplay.size() + " Events");
+        for (Map.Entry<Long, EventRecord> entry : toReplay.entrySet()) {
+            if (entry.getValue().isExpired(System.currentTimeMillis())) {
+                debug("discarding the recovered Event " + entry.getValue().getType() + ", it is expired");
+                log.completed(entry.getKey());
+                continue;
+            }
+            Optional<EventModel<?>> event = entry.getValue().toEvent(this);
+            if (!event.isPresent()) {
+                debug("discarding the recovered Event " + entry.getValue().getType() + ", unknown source: "
+                        + entry.getValue().getSourceID());
+                log.completed(entry.getKey());
+                continue;
+            }
+            EventDispatch dispatch = new EventDispatch(this, event.get(), coalesceLifecycle, null);
+            dispatch.setLogOffset(entry.getKey());
+            try {
+                events.put(dispatch, getLane(event.get()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (EventQueueFullException e) {
+                error("unable to replay the recovered Event " + event.get(), e);
+            }
+        }
+    }
+
+    /**
+     * marks the Event as completely processed in the durable log
+     * @param offset the offset of the Event in the log
+     */
+    void logCompleted(long offset) {
+        if (log != null)
+            log.completed(offset);
     }
 
     /**
@@ -39,12 +578,126 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * 2. addons are not expected to react in any way beside a small update<br>
      * 3. they are few.<br>
      * if your event matches the above laws, you may consider firing it concurrently.
+     * Most of the time it is better to fire the Event with the priority {@link EventPriority#REAL_TIME}, it then
+     * obeys the order of its partition and the limits of the EventQueue.
      * </p>
      * @param eventModel the EventModel
      */
     public void fireEventConcurrently(EventModel<?> eventModel) {
-        if(eventModel == null) return;
-        submit(() -> processEvent(eventModel));
+        if(eventModel == null || isDroppedUnobserved(eventModel)) return;
+        EventDispatch dispatch = new EventDispatch(this, eventModel, coalesceLifecycle, null);
+        if (isRejectedByStormGuard(dispatch))
+            return;
+        if (recorder != null)
+            recorder.record(eventModel);
+        submit(() -> processEvent(dispatch));
+    }
+
+    /**
+     * fires the Event through the EventQueue without ever waiting for space in it.
+     * <p>
+     * Unlike {@link #fireEventConcurrently(EventModel)} the Event keeps its priority. If the EventQueue is full, the
+     * Event gets dropped and notified with {@link EventLifeCycle#CANCELED}, unless the OverflowPolicy is DROP_OLDEST
+     * and an Event of at most the same priority can be evicted. Intended for the internal modules of izou which may be
+     * called from a listener, where waiting for space would stall the lane.
+     * </p>
+     * @param eventModel the EventModel
+     * @return true if the Event was accepted
+     */
+    public boolean offerEvent(EventModel<?> eventModel) {
+        if(eventModel == null || isDroppedUnobserved(eventModel)) return false;
+        EventDispatch dispatch = new EventDispatch(this, eventModel, coalesceLifecycle, null);
+        return !isRejectedByStormGuard(dispatch) && enqueue(Collections.singletonList(dispatch), false);
+    }
+
+    /**
+     * fires the Event through the EventQueue, without being subject to the quota of any publisher.
+     * <p>
+     * This method is intended for the internal modules of izou, addons should use the LocalEventManager.
+     * </p>
+     * @param eventModel the EventModel
+     * @throws EventQueueFullException if the Event got rejected because the EventQueue is exhausted
+     */
+    public void fireEvent(EventModel<?> eventModel) {
+        if(eventModel == null || isDroppedUnobserved(eventModel)) return;
+        EventDispatch dispatch = new EventDispatch(this, eventModel, coalesceLifecycle, null);
+        if (!isRejectedByStormGuard(dispatch))
+            enqueue(Collections.singletonList(dispatch));
+    }
+
+    /**
+     * passes the Events through the durable log and the conflation-stage into the EventQueue.
+     * <p>
+     * If interrupted while waiting for the log or for space in the EventQueue, the Events not yet added are not fired
+     * and the interrupt flag is restored.
+     * </p>
+     * @param dispatches the Events
+     * @throws EventQueueFullException if an Event got rejected because the EventQueue or the quota is exhausted
+     */
+    private void enqueue(List<EventDispatch> dispatches) {
+        enqueue(dispatches, true);
+    }
+
+    /**
+     * passes the Events through the durable log and the conflation-stage into the EventQueue.
+     * @param dispatches the Events
+     * @param blocking false to drop the Events instead of waiting for space (see {@link #offerEvent(EventModel)})
+     * @return false if an Event was dropped without waiting or the thread was interrupted
+     * @throws EventQueueFullException if blocking and an Event got rejected by the OverflowPolicy
+     */
+    private boolean enqueue(List<EventDispatch> dispatches, boolean blocking) {
+        if (recorder != null) {
+            for (EventDispatch dispatch : dispatches) {
+                recorder.record(dispatch.getEvent());
+            }
+        }
+        long lastOffset = -1;
+        if (log != null) {
+            for (EventDispatch dispatch : dispatches) {
+                dispatch.setLogOffset(log.append(dispatch.getEvent()));
+                lastOffset = Math.max(lastOffset, dispatch.getLogOffset());
+            }
+        }
+        try {
+            if (log != null)
+                log.awaitDurable(lastOffset);
+        } catch (InterruptedException e) {
+            //not reported as a full EventQueue, the caller would mistake the interrupt for backpressure
+            debug("interrupted while waiting for the event-log, the Events are not fired");
+            dispatches.forEach(EventDispatch::completed);
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        List<EventDispatch> accepted = new ArrayList<>(dispatches.size());
+        int[] lanes = new int[dispatches.size()];
+        for (EventDispatch dispatch : dispatches) {
+            int lane = getLane(dispatch.getEvent());
+            if (conflator.offer(dispatch, lane))
+                continue;
+            lanes[accepted.size()] = lane;
+            accepted.add(dispatch);
+        }
+        if (accepted.isEmpty())
+            return true;
+        if (!blocking) {
+            boolean added = true;
+            for (int i = 0; i < accepted.size(); i++) {
+                added &= events.offer(accepted.get(i), lanes[i]);
+            }
+            return added;
+        }
+        try {
+            if (accepted.size() == 1) {
+                events.put(accepted.get(0), lanes[0]);
+            } else {
+                events.putAll(accepted, lanes);
+            }
+        } catch (InterruptedException e) {
+            debug("interrupted while waiting for space in the EventQueue, the remaining Events are not fired");
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -58,11 +711,46 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      */
     public Optional<EventCallable> registerEventPublisher(Identification identification) throws IllegalIDException {
         if(registered.containsKey(identification)) return Optional.empty();
-        EventPublisher eventPublisher = new EventPublisher(events);
+        EventPublisher eventPublisher = new EventPublisher(new PublisherQuota(identification, defaultQuota));
         registered.put(identification, eventPublisher);
         return Optional.of(eventPublisher);
     }
 
+    /**
+     * sets the maximum number of Events of the publisher waiting in the EventQueue at the same time.
+     * <p>
+     * When the quota is exhausted, the OverflowPolicy of the EventQueue decides what happens with a new Event.
+     * </p>
+     * @param identification the Identification of the publisher
+     * @param quota the maximum number of waiting Events, 0 means unlimited
+     */
+    public void setEventPublisherQuota(Identification identification, int quota) {
+        EventPublisher eventPublisher = registered.get(identification);
+        if (eventPublisher != null)
+            eventPublisher.quota.setLimit(quota);
+    }
+
+    /**
+     * returns the number of Events of the publisher currently waiting in the EventQueue
+     * @param identification the Identification of the publisher
+     * @return the number of waiting Events, 0 if not registered
+     */
+    public int getQueuedEvents(Identification identification) {
+        EventPublisher eventPublisher = registered.get(identification);
+        return eventPublisher != null ? eventPublisher.quota.getQueued() : 0;
+    }
+
+    /**
+     * returns the number of Events of the publisher which got dropped or rejected because the EventQueue or the quota
+     * was exhausted
+     * @param identification the Identification of the publisher
+     * @return the number of dropped Events, 0 if not registered
+     */
+    public long getDroppedEvents(Identification identification) {
+        EventPublisher eventPublisher = registered.get(identification);
+        return eventPublisher != null ? eventPublisher.quota.getDropped() : 0;
+    }
+
     /**
      * with this method you can unregister EventPublisher add a Source of Events to the System.
      * <p>
@@ -97,6 +785,7 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      */
     public void unregisterEventsController(EventsControllerModel controller) {
         eventsControllers.remove(controller);
+        verdicts.invalidate(controller);
     }
 
 
@@ -122,26 +811,30 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * Adds an listener for events.
      * <p>
      * It will register for all ids individually!
+     * An id can also be a pattern, where * matches one segment or, as the last segment, all the remaining segments
+     * (e.g. izou.sound.* matches izou.sound.mute and izou.sound.player.stop).
      * This method will ignore if this listener is already listening to an Event.
      * Method is thread-safe.
      * </p>
      * @param ids this can be type, or descriptors etc.
      * @param eventListener the ActivatorEventListener-interface for receiving activator events
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void registerEventListener(List<String> ids, EventListenerModel eventListener) {
-        for(String id : ids) {
-            ArrayList<EventListenerModel> listenersList = listeners.get(id);
-            if (listenersList == null) {
-                listeners.put(id, new ArrayList<>());
-                listenersList = listeners.get(id);
-            }
-            if (!listenersList.contains(eventListener)) {
-                synchronized (listenersList) {
-                    listenersList.add(eventListener);
-                }
-            }
-        }
+        listeners.register(ids, eventListener);
+    }
+
+    /**
+     * Adds an listener for events.
+     * <p>
+     * It will register for all descriptors individually!
+     * This method will ignore if this listener is already listening to an Event.
+     * Method is thread-safe.
+     * </p>
+     * @param descriptors the pre-resolved descriptors (and types)
+     * @param eventListener the ActivatorEventListener-interface for receiving activator events
+     */
+    public void registerEventListener(DescriptorSet descriptors, EventListenerModel eventListener) {
+        listeners.register(descriptors, eventListener);
     }
 
     /**
@@ -155,17 +848,8 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * @param eventListener the ActivatorEventListener used to listen for events
      * @throws IllegalArgumentException if Listener is already listening to the Event or the id is not allowed
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void unregisterEventListener(EventModel<EventModel> event, EventListenerModel eventListener) throws IllegalArgumentException {
-        for (String id : event.getAllInformations()) {
-            ArrayList<EventListenerModel> listenersList = listeners.get(id);
-            if (listenersList == null) {
-                return;
-            }
-            synchronized (listenersList) {
-                listenersList.remove(eventListener);
-            }
-        }
+        listeners.unregister(event.getAllInformations(), eventListener);
     }
 
     /**
@@ -178,14 +862,9 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * @param eventListener the ActivatorEventListener used to listen for events
      * @throws IllegalArgumentException if Listener is already listening to the Event or the id is not allowed
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void unregisterEventListener(EventListenerModel eventListener) throws IllegalArgumentException {
-        listeners.values().stream()
-                .forEach(list -> {
-                    synchronized (list) {
-                        list.removeIf(eventListenerModel -> eventListenerModel.equals(eventListener));
-                    }
-                });
+        listeners.unregister(eventListener);
+        mailboxes.remove(eventListener);
     }
 
     /**
@@ -210,26 +889,30 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * Adds an listener for events that gets called when the event finished processing.
      * <p>
      * It will register for all ids individually!
+     * An id can also be a pattern, where * matches one segment or, as the last segment, all the remaining segments
+     * (e.g. izou.sound.* matches izou.sound.mute and izou.sound.player.stop).
      * This method will ignore if this listener is already listening to an Event.
      * Method is thread-safe.
      * </p>
      * @param ids this can be type, or descriptors etc.
      * @param eventListener the ActivatorEventListener-interface for receiving activator events
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void registerEventFinishedListener(List<String> ids, EventListenerModel eventListener) {
-        for(String id : ids) {
-            ArrayList<EventListenerModel> listenersList = finishListeners.get(id);
-            if (listenersList == null) {
-                finishListeners.put(id, new ArrayList<>());
-                listenersList = finishListeners.get(id);
-            }
-            if (!listenersList.contains(eventListener)) {
-                synchronized (listenersList) {
-                    listenersList.add(eventListener);
-                }
-            }
-        }
+        finishListeners.register(ids, eventListener);
+    }
+
+    /**
+     * Adds an listener for events that gets called when the event finished processing.
+     * <p>
+     * It will register for all descriptors individually!
+     * This method will ignore if this listener is already listening to an Event.
+     * Method is thread-safe.
+     * </p>
+     * @param descriptors the pre-resolved descriptors (and types)
+     * @param eventListener the ActivatorEventListener-interface for receiving activator events
+     */
+    public void registerEventFinishedListener(DescriptorSet descriptors, EventListenerModel eventListener) {
+        finishListeners.register(descriptors, eventListener);
     }
 
     /**
@@ -243,17 +926,8 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * @param eventListener the ActivatorEventListener used to listen for events
      * @throws IllegalArgumentException if Listener is already listening to the Event or the id is not allowed
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void unregisterEventFinishedListener(EventModel<EventModel> event, EventListenerModel eventListener) throws IllegalArgumentException {
-        for (String id : event.getAllInformations()) {
-            ArrayList<EventListenerModel> listenersList = finishListeners.get(id);
-            if (listenersList == null) {
-                return;
-            }
-            synchronized (listenersList) {
-                listenersList.remove(eventListener);
-            }
-        }
+        finishListeners.unregister(event.getAllInformations(), eventListener);
     }
 
     /**
@@ -266,14 +940,45 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * @param eventListener the ActivatorEventListener used to listen for events
      * @throws IllegalArgumentException if Listener is already listening to the Event or the id is not allowed
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void unregisterEventFinishedListener(EventListenerModel eventListener) throws IllegalArgumentException {
-        finishListeners.values().stream()
-                .forEach(list -> {
-                    synchronized (list) {
-                        list.removeIf(eventListenerModel -> eventListenerModel.equals(eventListener));
-                    }
-                });
+        finishListeners.unregister(eventListener);
+        finishMailboxes.remove(eventListener);
+    }
+
+    /**
+     * returns the number of Events waiting in the mailboxes of the listener (see {@value #MAILBOX_PROPERTY})
+     * @param eventListener the listener
+     * @return the number of waiting Events, 0 if the listener has no mailbox
+     */
+    public int getListenerBacklog(EventListenerModel eventListener) {
+        ListenerMailbox mailbox = mailboxes.get(eventListener);
+        ListenerMailbox finishMailbox = finishMailboxes.get(eventListener);
+        return (mailbox != null ? mailbox.getBacklog() : 0) + (finishMailbox != null ? finishMailbox.getBacklog() : 0);
+    }
+
+    /**
+     * returns how long the listener lags behind: the time the oldest Event waits in its mailboxes, or, if none is
+     * waiting, the time the last delivered Event waited (see {@value #MAILBOX_PROPERTY})
+     * @param eventListener the listener
+     * @return the lag in milliseconds, 0 if the listener has no mailbox
+     */
+    public long getListenerLag(EventListenerModel eventListener) {
+        ListenerMailbox mailbox = mailboxes.get(eventListener);
+        ListenerMailbox finishMailbox = finishMailboxes.get(eventListener);
+        return Math.max(mailbox != null ? mailbox.getLag() : 0, finishMailbox != null ? finishMailbox.getLag() : 0);
+    }
+
+    /**
+     * returns the number of Events dropped because the mailboxes of the listener were full (see
+     * {@value #MAILBOX_PROPERTY})
+     * @param eventListener the listener
+     * @return the number of dropped Events, 0 if the listener has no mailbox
+     */
+    public long getListenerDroppedEvents(EventListenerModel eventListener) {
+        ListenerMailbox mailbox = mailboxes.get(eventListener);
+        ListenerMailbox finishMailbox = finishMailboxes.get(eventListener);
+        return (mailbox != null ? mailbox.getDroppedCount() : 0)
+                + (finishMailbox != null ? finishMailbox.getDroppedCount() : 0);
     }
 
     /**
@@ -283,112 +988,346 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * @return true if the event should be fired
      */
     private boolean checkEventsControllers(EventModel event) {
-        List<CompletableFuture<Boolean>> collect = eventsControllers.stream()
-                .map(controller -> submit(() -> controller.controlEventDispatcher(event)).thenApply(result -> {
-                    if (!result)
+        if (eventsControllers.isEmpty())
+            return true;
+        DescriptorSet descriptors = event.getDescriptorSet();
+        VerdictCache.Signature signature = null;
+        List<EventsControllerModel> asynchronous = null;
+        for (EventsControllerModel controller : eventsControllers) {
+            DescriptorSet filter = controller.getDescriptorFilter();
+            if (filter != null && !filter.intersects(descriptors))
+                continue;
+            Map<VerdictCache.Signature, Boolean> cache = null;
+            if (controller.isVerdictCacheable()) {
+                if (signature == null)
+                    signature = new VerdictCache.Signature(event.getType(), descriptors);
+                cache = verdicts.getVerdicts(controller);
+                Boolean verdict = cache.get(signature);
+                if (verdict != null) {
+                    if (!verdict) {
+                        if (isDebugEnabled())
+                            debug("Event: " + event + " is canceled by " + controller.getID() + " (cached)");
+                        return false;
+                    }
+                    continue;
+                }
+            }
+            if (controller instanceof SynchronousEventsControllerModel) {
+                boolean verdict;
+                try {
+                    verdict = controller.controlEventDispatcher(event);
+                } catch (RuntimeException | LinkageError e) {
+                    getMain().getThreadPoolManager().handleThrowable(e, controller);
+                    continue;
+                }
+                verdicts.remember(cache, signature, verdict);
+                if (!verdict) {
+                    if (isDebugEnabled())
                         debug("Event: " + event + " is canceled by " + controller.getID());
-                    return result;
-                }))
-                .collect(Collectors.toList());
+                    return false;
+                }
+            } else {
+                if (asynchronous == null)
+                    asynchronous = new ArrayList<>();
+                asynchronous.add(controller);
+            }
+        }
+        if (asynchronous == null)
+            return true;
+
+        //completes with false on the first veto, so the remaining EventsControllers are not awaited
+        CompletableFuture<Boolean> veto = new CompletableFuture<>();
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>(asynchronous.size());
+        //the tasks running on the pool, cancelling them interrupts the EventsControllers still deciding
+        List<Future<?>> tasks = new ArrayList<>(asynchronous.size());
+        ExecutorService pool = getMain().getThreadPoolManager().getAddOnsThreadPool();
+        for (EventsControllerModel controller : asynchronous) {
+            Map<VerdictCache.Signature, Boolean> cache = controller.isVerdictCacheable()
+                    ? verdicts.getVerdicts(controller) : null;
+            VerdictCache.Signature key = signature;
+            CompletableFuture<Boolean> future = new CompletableFuture<>();
+            futures.add(future);
+            tasks.add(pool.submit(() -> {
+                boolean result;
+                try {
+                    result = controller.controlEventDispatcher(event);
+                } catch (Throwable e) {
+                    getMain().getThreadPoolManager().handleThrowable(e, controller);
+                    future.completeExceptionally(e);
+                    return;
+                }
+                verdicts.remember(cache, key, result);
+                if (!result) {
+                    debug("Event: " + event + " is canceled by " + controller.getID());
+                    veto.complete(false);
+                }
+                future.complete(result);
+            }));
+        }
+        CompletableFuture<Boolean> allApproved = timeOutAsync(futures, 1000).thenApply(done -> true);
         try {
-            collect = timeOut(collect, 1000);
+            CompletableFuture.anyOf(veto, allApproved).get();
         } catch (InterruptedException e) {
             debug("interrupted");
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            //neither completes exceptionally
+            error("unable to check the EventsControllers", e);
         }
-        return collect.stream()
-                .map(future -> {
-                    try {
-                        return future.get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        return null;
-                    }
-                })
-                .filter(Objects::nonNull)
-                .noneMatch(bool -> !bool);
+        //stops the EventsControllers still running after a veto or the timeout, a no-op for the finished ones
+        tasks.forEach(task -> task.cancel(true));
+        futures.forEach(future -> future.cancel(false));
+        return !veto.isDone();
+    }
+
+    /**
+     * removes all the cached decisions of the EventsController (see {@link EventsControllerModel#isVerdictCacheable()}).
+     * <p>
+     * An EventsController must call this method when the state its decisions are based on changed.
+     * </p>
+     * @param controller the EventsController
+     */
+    public void invalidateVerdicts(EventsControllerModel controller) {
+        verdicts.invalidate(controller);
+    }
+
+    /**
+     * removes all the cached decisions of all the EventsControllers
+     */
+    public void invalidateVerdicts() {
+        verdicts.invalidate();
+    }
+
+    /**
+     * sets the ConflationPolicy of all the Events with the type or descriptor.
+     * <p>
+     * The rule of the type has precedence over the rules of the descriptors. Method is thread-safe.
+     * </p>
+     * @param descriptor the type or descriptor
+     * @param policy the policy, NONE disables the conflation even if there is a default policy
+     * @param milliseconds the length of the window in milliseconds
+     */
+    public void setConflationPolicy(String descriptor, ConflationPolicy policy, long milliseconds) {
+        conflator.setRule(descriptor, policy, milliseconds);
+    }
+
+    /**
+     * removes the ConflationPolicy of the type or descriptor, the Events will use the default policy again.
+     * @param descriptor the type or descriptor
+     */
+    public void removeConflationPolicy(String descriptor) {
+        conflator.removeRule(descriptor);
+    }
+
+    /**
+     * returns the number of Events dropped because they were conflated with an equal Event
+     * @return the number of conflated Events
+     */
+    public long getConflatedCount() {
+        return conflator.getConflatedCount();
     }
 
+    /**
+     * returns a read-only view of all the waiting Events, see {@link #getEventQueue()} for the counters
+     * @return a BlockingQueue, which can not be modified
+     */
     public BlockingQueue<EventModel<?>> getEvents() {
+        return eventsView;
+    }
+
+    /**
+     * returns the queue holding all the waiting Events, can be used to monitor the depth and the drop-counters
+     * @return the EventQueue
+     */
+    public EventQueue getEventQueue() {
         return events;
     }
 
     /**
-     * When an object implementing interface <code>Runnable</code> is used
-     * to create a thread, starting the thread causes the object's
-     * <code>run</code> method to be called in that separately executing
-     * thread.
+     * returns the index of the lane responsible for the Event
      * <p>
-     * The general contract of the method <code>run</code> is that it may
-     * take any action whatsoever.
-     *
-     * @see Thread#run()
+     * Events with the same partition-key (the source or the type) always end up in the same lane.
+     * </p>
+     * @param event the Event
+     * @return the index of the lane
      */
-    @Override
-    public void run() {
-        while(!stop) {
-            try {
-                EventModel<?> event = events.take();
-                processEvent(event);
-            } catch (InterruptedException e) {
-                log.warn("interrupted", e);
+    private int getLane(EventModel<?> event) {
+        if (lanes.length == 1)
+            return 0;
+        String key;
+        if (partitionByType) {
+            key = event.getType();
+        } else {
+            key = event.getSource() != null ? event.getSource().getID() : null;
+        }
+        int hash = key != null ? key.hashCode() : 0;
+        //spread the bits, String hashes tend to differ only in the lower bits
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    /**
+     * returns the number of Events waiting in the lanes
+     * @return the number of waiting Events, indexed by lane
+     */
+    public int[] getLaneSizes() {
+        int[] sizes = new int[lanes.length];
+        for (EventLane lane : lanes) {
+            sizes[lane.getIndex()] = events.size(lane.getIndex());
+        }
+        return sizes;
+    }
+
+    /**
+     * returns the number of Events waiting in front of every stage of the pipelined lanes (see
+     * {@value #PIPELINE_PROPERTY})
+     * @return the number of waiting Events of all lanes, indexed by stage (always 0 if not pipelined)
+     */
+    public int[] getStageSizes() {
+        int[] sizes = new int[STAGE_COUNT];
+        for (EventLane lane : lanes) {
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                sizes[stage] += lane.getWaiting(stage);
             }
         }
+        return sizes;
     }
 
     /**
      * process the Event
-     * @param event the event to process
+     * @param dispatch the event to process
+     */
+    void processEvent(EventDispatch dispatch) {
+        try {
+            for (int stage = 0; stage < STAGE_COUNT; stage++) {
+                if (!processStage(dispatch, stage))
+                    break;
+            }
+        } finally {
+            dispatch.completed();
+        }
+    }
+
+    /**
+     * processes one stage of the Event, the stages have to be processed in order:
+     * <ol>
+     *     <li>the EventsControllers and the ResourceManager</li>
+     *     <li>the listeners</li>
+     *     <li>the OutputManager</li>
+     *     <li>the finished-listeners</li>
+     * </ol>
+     * The caller has to mark the Event as completed after the last stage or when a stage returned false.
+     * Expired Events are canceled before the stage (except the finished-listeners).
+     * @param dispatch the Event
+     * @param stage the index of the stage
+     * @return true if the Event should continue with the next stage, false if it was canceled or expired
+     */
+    boolean processStage(EventDispatch dispatch, int stage) {
+        //the Events fired while processing the stage are caused by the Event
+        TraceNode trace = dispatch.getTrace();
+        TraceNode previous = EventTraces.enter(trace);
+        try {
+            return runStage(dispatch, stage);
+        } finally {
+            EventTraces.exit(trace, previous);
+        }
+    }
+
+    /**
+     * processes one stage of the Event, see {@link #processStage(EventDispatch, int)}
+     * @param dispatch the Event
+     * @param stage the index of the stage
+     * @return true if the Event should continue with the next stage, false if it was canceled or expired
+     */
+    private boolean runStage(EventDispatch dispatch, int stage) {
+        EventModel<?> event = dispatch.getEvent();
+        if (stage < STAGE_COUNT - 1 && dispatch.isExpired()) {
+            expired.increment();
+            debug("expired: " + event + " before stage " + stage);
+            dispatch.lifecycle(EventLifeCycle.CANCELED);
+            return false;
+        }
+        switch (stage) {
+            case 0:
+                return approve(dispatch);
+            case 1:
+                dispatch.lifecycle(EventLifeCycle.LISTENERS);
+                if (!dispatch.isShortPath())
+                    deliver(listeners.getListeners(event), mailboxes, event);
+                return true;
+            case 2:
+                dispatch.lifecycle(EventLifeCycle.OUTPUT);
+                getMain().getOutputManager().passDataToOutputPlugins(event);
+                dispatch.lifecycle(EventLifeCycle.ENDED);
+                return true;
+            case 3:
+                if (!dispatch.isShortPath())
+                    deliver(finishListeners.getListeners(event), finishMailboxes, event);
+                return true;
+            default:
+                throw new IllegalArgumentException("unknown stage: " + stage);
+        }
+    }
+
+    /**
+     * passes the Event through the EventsControllers and the ResourceManager
+     * @param dispatch the Event
+     * @return true if approved, false if canceled
      */
-    private void processEvent(EventModel<?> event) {
+    private boolean approve(EventDispatch dispatch) {
+        EventModel<?> event = dispatch.getEvent();
         if (!event.getSource().isCreatedFromInstance()) {
             error("event: " + event + "has invalid source");
-            return;
+            return false;
         }
-        debug("EventFired: " + event.toString() + " from " + event.getSource().getID());
-        submit(() -> event.lifecycleCallback(EventLifeCycle.START));
+        if (isDebugEnabled())
+            debug("EventFired: " + event.toString() + " from " + event.getSource().getID());
+        dispatch.lifecycle(EventLifeCycle.START);
 
         if (checkEventsControllers(event)) {
-            submit(() -> event.lifecycleCallback(EventLifeCycle.APPROVED));
-            submit(() -> event.lifecycleCallback(EventLifeCycle.RESOURCE));
-            List<ResourceModel> resourceList = getMain().getResourceManager().generateResources(event);
-            event.addResources(resourceList);
-            submit(() -> event.lifecycleCallback(EventLifeCycle.LISTENERS));
-            List<EventListenerModel> listenersTemp = event.getAllInformations().parallelStream()
-                    .map(listeners::get)
-                    .filter(Objects::nonNull)
-                    .flatMap(Collection::stream)
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            List<CompletableFuture> futures = listenersTemp.stream()
-                    .map(eventListener -> submit(() -> eventListener.eventFired(event)))
-                    .collect(Collectors.toList());
-            try {
-                timeOut(futures, 1000);
-            } catch (InterruptedException e) {
-                error("interrupted", e);
+            dispatch.lifecycle(EventLifeCycle.APPROVED);
+            dispatch.lifecycle(EventLifeCycle.RESOURCE);
+            ResourceManager resourceManager = getMain().getResourceManager();
+            boolean resources = resourceManager.isSubscribed(event);
+            if (resources) {
+                event.addResources(resourceManager.generateResources(event));
+            } else if (listeners.getListeners(event).length == 0 && finishListeners.getListeners(event).length == 0) {
+                dispatch.setShortPath();
+                shortPath.increment();
             }
-            submit(() -> event.lifecycleCallback(EventLifeCycle.OUTPUT));
-            getMain().getOutputManager().passDataToOutputPlugins(event);
-            submit(() -> event.lifecycleCallback(EventLifeCycle.ENDED));
-            List<EventListenerModel> finishListenersTemp = event.getAllInformations().parallelStream()
-                    .map(finishListeners::get)
-                    .filter(Objects::nonNull)
-                    .flatMap(Collection::stream)
-                    .distinct()
-                    .collect(Collectors.toList());
-
-            futures = finishListenersTemp.stream()
-                    .map(eventListener -> submit(() -> eventListener.eventFired(event)))
-                    .collect(Collectors.toList());
+            return true;
+        } else {
+            if (isDebugEnabled())
+                debug("canceling: " + event.toString() + " from " + event.getSource().getID());
+            dispatch.lifecycle(EventLifeCycle.CANCELED);
+            return false;
+        }
+    }
 
-            try {
-                timeOut(futures, 1000);
-            } catch (InterruptedException e) {
-                error("interrupted", e);
+    /**
+     * delivers the Event to the listeners, either by putting it into their mailboxes or by notifying them with the
+     * {@link ListenerFanOut} of the current thread and waiting (with a timeout of 1 second) until they finished
+     * @param eventListeners the listeners
+     * @param listenerMailboxes the mailboxes of the listeners
+     * @param event the Event
+     */
+    private void deliver(EventListenerModel[] eventListeners,
+                         ConcurrentHashMap<EventListenerModel, ListenerMailbox> listenerMailboxes, EventModel<?> event) {
+        if (mailboxCapacity == 0) {
+            fanOuts.get().notifyAndAwait(eventListeners, event, 1000);
+            return;
+        }
+        try {
+            for (EventListenerModel eventListener : eventListeners) {
+                ListenerMailbox mailbox = listenerMailboxes.get(eventListener);
+                if (mailbox == null)
+                    mailbox = listenerMailboxes.computeIfAbsent(eventListener,
+                            listener -> new ListenerMailbox(this, listener, mailboxCapacity, mailboxOverflowPolicy,
+                                    mailboxTimeout));
+                mailbox.offer(event);
             }
-        } else {
-            debug("canceling: " + event.toString() + " from " + event.getSource().getID());
-            submit(() -> event.lifecycleCallback(EventLifeCycle.CANCELED));
+        } catch (InterruptedException e) {
+            error("interrupted", e);
         }
     }
 
@@ -396,26 +1335,62 @@ public class EventDistributor extends IzouModule implements Runnable, AddonThrea
      * stops the EventDistributor
      */
     public void stop() {
-        stop = true;
+        for (EventLane lane : lanes) {
+            lane.stop();
+        }
+        if (log != null)
+            log.close();
+        if (recorder != null)
+            recorder.close();
+        if (latencyDump != null)
+            dumpLatencies(latencyDump);
+        if (traceDump != null)
+            dumpTraces(traceDump);
     }
 
     /**
      * This class is used to pass Events to the EventDistributor
      */
     private class EventPublisher implements EventCallable {
-        //the queue where all the Events are stored
-        private final BlockingQueue<EventModel<?>> events;
-        protected EventPublisher(BlockingQueue<EventModel<?>> events) {
-            this.events = events;
+        private final PublisherQuota quota;
+        protected EventPublisher(PublisherQuota quota) {
+            this.quota = quota;
         }
 
         /**
          * use this method to fire Events.
          * @param event the Event to fire
+         * @throws EventQueueFullException if the Event got rejected because the EventQueue or the quota is exhausted
          */
         public void fire(EventModel event) {
-            if(event == null) return;
-            events.add(event);
+            if(event == null || isDroppedUnobserved(event)) return;
+            EventDispatch dispatch = new EventDispatch(EventDistributor.this, event, coalesceLifecycle, quota);
+            if (!isRejectedByStormGuard(dispatch))
+                enqueue(Collections.singletonList(dispatch));
+        }
+
+        /**
+         * use this method to fire multiple Events at once, they are added to the EventQueue in one operation.
+         * @param events the Events to fire
+         * @throws EventQueueFullException if an Event got rejected because the EventQueue or the quota is exhausted
+         */
+        @Override
+        @SuppressWarnings("rawtypes")
+        public void fireEvents(List<? extends EventModel> events) {
+            List<EventDispatch> dispatches = new ArrayList<>(events.size());
+            for (EventModel event : events) {
+                if (event == null || isDroppedUnobserved(event))
+                    continue;
+                EventDispatch dispatch = new EventDispatch(EventDistributor.this, event, coalesceLifecycle, quota);
+                if (!isRejectedByStormGuard(dispatch))
+                    dispatches.add(dispatch);
+            }
+            enqueue(dispatches);
+        }
+
+        @Override
+        public boolean isObserved(EventModel<?> event) {
+            return EventDistributor.this.isObserved(event);
         }
     }
 }
@@ -0,0 +1,146 @@
+package org.intellimate.izou.events;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A worker lane of the EventDistributor.
+ * <p>
+ * Every lane takes the Events of its partition of the EventQueue and processes them strictly one after another, so the
+ * order of the Events within one partition is kept while Events of other partitions are processed in parallel.
+ * </p>
+ * <p>
+ * A pipelined lane runs every stage of the processing (see {@link EventDistributor#processStage(EventDispatch, int)})
+ * on its own thread, the stages are connected by bounded queues. Every stage processes the Events in the order of the
+ * partition and every Event passes the stages in order, so neither the order nor the lifecycle of the Events changes,
+ * but the next Event can already be in the first stage while the previous one waits for the output.
+ * If a queue is full, the stage before waits.
+ * </p>
+ * @version 1.0
+ */
+class EventLane implements Runnable {
+    private final EventDistributor eventDistributor;
+    private final EventQueue eventQueue;
+    private final int index;
+    //the queue in front of every stage except the first, null if not pipelined
+    private final BlockingQueue<EventDispatch>[] stageQueues;
+    private volatile boolean stop = false;
+
+    /**
+     * creates a new lane
+     * @param eventDistributor the EventDistributor used to process the Events
+     * @param eventQueue the queue to take the Events from
+     * @param index the index of the lane
+     * @param pipelineCapacity the capacity of the queues between the stages, 0 to process one Event after another
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    EventLane(EventDistributor eventDistributor, EventQueue eventQueue, int index, int pipelineCapacity) {
+        this.eventDistributor = eventDistributor;
+        this.eventQueue = eventQueue;
+        this.index = index;
+        if (pipelineCapacity > 0) {
+            stageQueues = new BlockingQueue[EventDistributor.STAGE_COUNT];
+            for (int stage = 1; stage < EventDistributor.STAGE_COUNT; stage++) {
+                stageQueues[stage] = new ArrayBlockingQueue<>(pipelineCapacity);
+            }
+        } else {
+            stageQueues = null;
+        }
+    }
+
+    /**
+     * returns the index of the lane
+     * @return the index
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * returns whether the stages of the lane run on their own threads
+     * @return true if pipelined
+     */
+    boolean isPipelined() {
+        return stageQueues != null;
+    }
+
+    /**
+     * returns the number of Events waiting in front of the stage
+     * @param stage the index of the stage
+     * @return the number of waiting Events, always 0 for the first stage or if not pipelined
+     */
+    int getWaiting(int stage) {
+        if (stageQueues == null || stageQueues[stage] == null)
+            return 0;
+        return stageQueues[stage].size();
+    }
+
+    @Override
+    public void run() {
+        if (stageQueues != null) {
+            ExecutorService threadPool = eventDistributor.getMain().getThreadPoolManager().getIzouThreadPool();
+            for (int stage = 1; stage < EventDistributor.STAGE_COUNT; stage++) {
+                int current = stage;
+                threadPool.submit(() -> runStage(current));
+            }
+        }
+        while (!stop) {
+            try {
+                EventDispatch dispatch = eventQueue.take(index);
+                if (stageQueues == null) {
+                    eventDistributor.processEvent(dispatch);
+                } else {
+                    processStage(dispatch, 0);
+                }
+            } catch (InterruptedException e) {
+                eventDistributor.error("lane " + index + " interrupted", e);
+            } catch (RuntimeException e) {
+                eventDistributor.error("lane " + index + " failed to process an event", e);
+            }
+        }
+    }
+
+    /**
+     * takes the Events from the queue in front of the stage and processes them
+     * @param stage the index of the stage
+     */
+    private void runStage(int stage) {
+        while (!stop) {
+            try {
+                processStage(stageQueues[stage].take(), stage);
+            } catch (InterruptedException e) {
+                eventDistributor.error("lane " + index + ", stage " + stage + " interrupted", e);
+            }
+        }
+    }
+
+    /**
+     * processes the stage of the Event and passes it to the next stage or marks it as completed if it was the last
+     * stage, canceled or failed
+     * @param dispatch the Event
+     * @param stage the index of the stage
+     * @throws InterruptedException if interrupted while waiting for the next stage
+     */
+    private void processStage(EventDispatch dispatch, int stage) throws InterruptedException {
+        boolean passed = false;
+        try {
+            if (eventDistributor.processStage(dispatch, stage) && stage + 1 < EventDistributor.STAGE_COUNT) {
+                stageQueues[stage + 1].put(dispatch);
+                passed = true;
+            }
+        } catch (RuntimeException e) {
+            eventDistributor.error("lane " + index + " failed to process an event in stage " + stage, e);
+        } finally {
+            if (!passed)
+                dispatch.completed();
+        }
+    }
+
+    /**
+     * stops the lane
+     */
+    void stop() {
+        stop = true;
+    }
+}
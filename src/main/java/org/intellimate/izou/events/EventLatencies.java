@@ -0,0 +1,204 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The latencies of the stages of the Events, recorded by the EventDistributor for every type of Event.
+ * <p>
+ * The stages are measured between the transitions of the {@link EventLifeCycle} with {@link System#nanoTime()}.
+ * Canceled Events only record the stages until they were canceled, the total latency is only recorded for Events
+ * which were processed until the end. To protect against Events with random types, at most {@value #MAX_TYPES} types
+ * are recorded individually, the latencies of all the other types are recorded together (see
+ * {@link #getOthers(Stage)}).
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public class EventLatencies {
+    private static final int MAX_TYPES = 256;
+    //replaced as a whole on reset, so a dispatch still holding the old histograms can't distort the new ones
+    private volatile Recorded recorded = new Recorded();
+
+    /**
+     * returns the histograms of the type, which also record into the histograms of all the types
+     * @param type the type of the Event
+     * @return the histograms
+     */
+    Histograms forType(String type) {
+        Recorded recorded = this.recorded;
+        Histograms histograms = recorded.byType.get(type);
+        if (histograms != null)
+            return histograms;
+        if (recorded.byType.size() >= MAX_TYPES)
+            return recorded.others;
+        return recorded.byType.computeIfAbsent(type, key -> new Histograms(recorded.all));
+    }
+
+    /**
+     * returns the latencies of the stage for the type
+     * @param type the type of the Event
+     * @param stage the stage
+     * @return the histogram or empty if no Event of the type was recorded
+     */
+    public Optional<LatencyHistogram> get(String type, Stage stage) {
+        return Optional.ofNullable(recorded.byType.get(type))
+                .map(histograms -> histograms.get(stage));
+    }
+
+    /**
+     * returns the latencies of the stage for all the types
+     * @param stage the stage
+     * @return the histogram
+     */
+    public LatencyHistogram get(Stage stage) {
+        return recorded.all.get(stage);
+    }
+
+    /**
+     * returns the latencies of the stage for all the types which were not recorded individually, because there were
+     * already too many types
+     * @param stage the stage
+     * @return the histogram
+     */
+    public LatencyHistogram getOthers(Stage stage) {
+        return recorded.others.get(stage);
+    }
+
+    /**
+     * returns all the recorded types
+     * @return a sorted List of the types
+     */
+    public List<String> getTypes() {
+        List<String> types = new ArrayList<>(recorded.byType.keySet());
+        Collections.sort(types);
+        return types;
+    }
+
+    /**
+     * discards all the recorded latencies
+     */
+    public void reset() {
+        recorded = new Recorded();
+    }
+
+    /**
+     * writes all the recorded latencies (in milliseconds) as a table to the file, replacing its content
+     * @param file the file
+     * @throws IOException if unable to write
+     */
+    public void dump(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs())
+            throw new IOException("unable to create " + parent);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.printf("%-40s %-16s %10s %10s %10s %10s %10s %10s%n",
+                    "type", "stage", "count", "mean", "p50", "p90", "p99", "max");
+            Recorded recorded = this.recorded;
+            dump(writer, "*", recorded.all);
+            List<String> types = new ArrayList<>(recorded.byType.keySet());
+            Collections.sort(types);
+            for (String type : types) {
+                dump(writer, type, recorded.byType.get(type));
+            }
+            dump(writer, "* (other types)", recorded.others);
+        }
+    }
+
+    private void dump(PrintWriter writer, String type, Histograms histograms) {
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = histograms.get(stage);
+            if (histogram.getCount() == 0)
+                continue;
+            TimeUnit unit = TimeUnit.MILLISECONDS;
+            writer.printf("%-40s %-16s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", type, stage, histogram.getCount(),
+                    histogram.getMean(unit), histogram.getPercentile(50, unit), histogram.getPercentile(90, unit),
+                    histogram.getPercentile(99, unit), histogram.getMax(unit));
+        }
+    }
+
+    /**
+     * the measured stages of an Event
+     */
+    @AddonAccessible
+    public enum Stage {
+        /**
+         * from the firing of the Event until the EventDistributor started processing it
+         */
+        QUEUE,
+        /**
+         * from {@link EventLifeCycle#START} until the EventsControllers approved or canceled the Event
+         */
+        CONTROLLERS,
+        /**
+         * from {@link EventLifeCycle#RESOURCE} until the Resources were generated
+         */
+        RESOURCES,
+        /**
+         * from {@link EventLifeCycle#LISTENERS} until the EventListeners were notified
+         */
+        LISTENERS,
+        /**
+         * from {@link EventLifeCycle#OUTPUT} until the OutputPlugins finished
+         */
+        OUTPUT,
+        /**
+         * from {@link EventLifeCycle#ENDED} until the finished-listeners were notified
+         */
+        FINISH_LISTENERS,
+        /**
+         * from the firing of the Event until it was completely processed
+         */
+        TOTAL
+    }
+
+    /**
+     * the recorded histograms of all the types
+     */
+    private static final class Recorded {
+        private final Histograms all = new Histograms(null);
+        private final Histograms others = new Histograms(all);
+        private final ConcurrentHashMap<String, Histograms> byType = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * the histograms of all the stages of one type
+     */
+    static final class Histograms {
+        private final LatencyHistogram[] stages = new LatencyHistogram[Stage.values().length];
+        //the histograms of all the types or null if this are the histograms of all the types
+        private final Histograms all;
+
+        private Histograms(Histograms all) {
+            this.all = all;
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = new LatencyHistogram();
+            }
+        }
+
+        /**
+         * records the latency of the stage
+         * @param stage the stage
+         * @param nanos the latency in nanoseconds
+         */
+        void record(Stage stage, long nanos) {
+            stages[stage.ordinal()].record(nanos);
+            if (all != null)
+                all.record(stage, nanos);
+        }
+
+        private LatencyHistogram get(Stage stage) {
+            return stages[stage.ordinal()];
+        }
+    }
+}
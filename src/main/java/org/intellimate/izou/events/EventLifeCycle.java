@@ -18,7 +18,8 @@ public enum EventLifeCycle {
      */
     APPROVED,
     /**
-     * gets called when the EventsController canceled the Event.
+     * gets called when the EventsController canceled the Event or when the Event expired (see
+     * {@link EventModel#getTimeToLive()}).
      */
     CANCELED,
     /**
@@ -0,0 +1,443 @@
+package org.intellimate.izou.events;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * The durable log of all the accepted Events, stored as memory-mapped segments.
+ * <p>
+ * Every Event gets appended with a increasing offset before it is added to the EventQueue. A single flusher-thread
+ * forces the appended records to disk (group-commit: all the records appended while the previous force was running
+ * are forced together) and checkpoints the highest offset below which all Events were processed. On startup, all the
+ * Events after the checkpoint are replayed, so every Event is delivered at least once.
+ * </p>
+ * <p>
+ * A record consists of the length of the payload, the CRC32 of the payload, the offset and the payload (see
+ * {@link EventRecord}, including the deadline and the serializable Resources). A torn record at the end of the last
+ * segment is discarded on recovery. Obsolete segments are unmapped before they are deleted, so they neither keep the
+ * address-space nor the file (on Windows) occupied.
+ * </p>
+ * @version 1.0
+ */
+class EventLog implements Runnable {
+    private static final int HEADER = 16;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+    //the flusher checkpoints at least this often, even if no Event was appended
+    private static final long CHECKPOINT_INTERVAL = 100;
+    private final EventDistributor eventDistributor;
+    private final File directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedCondition = lock.newCondition();
+    private final Condition flushedCondition = lock.newCondition();
+    //the offsets of the Events which are not yet processed
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private final FileChannel checkpointChannel;
+    //guarded by lock, the oldest segment first
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    //guarded by lock
+    private long nextOffset;
+    //guarded by lock
+    private long appended;
+    //guarded by lock
+    private long durable;
+    //only accessed by the flusher
+    private long checkpoint;
+    private volatile boolean stop = false;
+
+    /**
+     * opens the log, creating the directory if necessary
+     * @param eventDistributor the EventDistributor
+     * @param directory the directory of the segments
+     * @param segmentSize the size of a new segment in bytes
+     * @param sync true if {@link #awaitDurable(long)} should wait for the group-commit
+     * @throws IOException if unable to open the log
+     */
+    EventLog(EventDistributor eventDistributor, File directory, int segmentSize, boolean sync) throws IOException {
+        this.eventDistributor = eventDistributor;
+        this.directory = directory;
+        this.segmentSize = Math.max(4096, segmentSize);
+        this.sync = sync;
+        if (!directory.exists() && !directory.mkdirs())
+            throw new IOException("unable to create " + directory);
+        checkpointChannel = new RandomAccessFile(new File(directory, CHECKPOINT), "rw").getChannel();
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        if (checkpointChannel.read(buffer, 0) == 8) {
+            buffer.flip();
+            checkpoint = buffer.getLong();
+        }
+    }
+
+    /**
+     * reads all the segments and opens the last segment for appending
+     * @return all the Events after the checkpoint, mapped by their offset, in order
+     * @throws IOException if unable to read the segments
+     */
+    SortedMap<Long, EventRecord> recover() throws IOException {
+        TreeMap<Long, EventRecord> recovered = new TreeMap<>();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files == null)
+            files = new File[0];
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        long last = 0;
+        lock.lock();
+        try {
+            for (File file : files) {
+                Segment segment = Segment.open(file, segmentSize);
+                last = segment.read(last, checkpoint, recovered, eventDistributor);
+                segments.addLast(segment);
+            }
+            //the segments may have been deleted after the checkpoint
+            last = Math.max(last, checkpoint);
+            nextOffset = last + 1;
+            appended = last;
+            durable = last;
+            if (segments.isEmpty())
+                segments.addLast(Segment.create(directory, nextOffset, segmentSize));
+            inFlight.addAll(recovered.keySet());
+        } finally {
+            lock.unlock();
+        }
+        return recovered;
+    }
+
+    /**
+     * appends the Event to the log
+     * @param event the Event to append
+     * @return the offset of the Event or -1 if the Event could not be appended
+     */
+    long append(EventModel<?> event) {
+        byte[] payload;
+        try {
+            long timeToLive = event.getTimeToLive() > 0 ? event.getTimeToLive()
+                    : eventDistributor.getDefaultTimeToLive();
+            payload = EventRecord.durable(event, timeToLive).toBytes();
+        } catch (IOException | RuntimeException e) {
+            eventDistributor.error("unable to persist the Event " + event, e);
+            return -1;
+        }
+        if (HEADER + payload.length > segmentSize) {
+            eventDistributor.error("unable to persist the Event " + event + ", it is larger than a segment");
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        lock.lock();
+        try {
+            if (stop)
+                return -1;
+            Segment segment = segments.getLast();
+            if (segment.buffer.remaining() < HEADER + payload.length)
+                segment = roll(segment);
+            long offset = nextOffset++;
+            segment.append(offset, (int) crc.getValue(), payload);
+            inFlight.add(offset);
+            appended = offset;
+            appendedCondition.signal();
+            return offset;
+        } catch (IOException e) {
+            eventDistributor.error("unable to persist the Event " + event, e);
+            return -1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * waits until the Event with the offset was forced to disk (if sync is enabled)
+     * @param offset the offset of the Event
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void awaitDurable(long offset) throws InterruptedException {
+        if (!sync || offset < 0)
+            return;
+        lock.lockInterruptibly();
+        try {
+            while (durable < offset && !stop) {
+                flushedCondition.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * marks the Event with the offset as processed
+     * @param offset the offset of the Event
+     */
+    void completed(long offset) {
+        if (offset >= 0)
+            inFlight.remove(offset);
+    }
+
+    /**
+     * the flusher
+     */
+    @Override
+    public void run() {
+        while (!stop) {
+            Segment segment;
+            long target;
+            lock.lock();
+            try {
+                if (appended == durable)
+                    appendedCondition.await(CHECKPOINT_INTERVAL, TimeUnit.MILLISECONDS);
+                segment = segments.getLast();
+                target = appended;
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                //the previous segments were forced while rolling
+                segment.force();
+                lock.lock();
+                try {
+                    if (target > durable)
+                        durable = target;
+                    flushedCondition.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+                checkpoint();
+            } catch (IOException | RuntimeException e) {
+                eventDistributor.error("unable to flush the event-log", e);
+            }
+        }
+    }
+
+    /**
+     * stops the flusher, after forcing all the appended Events and checkpointing
+     */
+    void close() {
+        lock.lock();
+        try {
+            stop = true;
+            appendedCondition.signalAll();
+            flushedCondition.signalAll();
+            segments.getLast().force();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            checkpoint();
+            checkpointChannel.close();
+        } catch (IOException e) {
+            eventDistributor.error("unable to close the event-log", e);
+        }
+    }
+
+    /**
+     * writes the highest offset below which all Events were processed and deletes the obsolete segments
+     * @throws IOException if unable to write the checkpoint
+     */
+    private synchronized void checkpoint() throws IOException {
+        long durable;
+        lock.lock();
+        try {
+            durable = this.durable;
+        } finally {
+            lock.unlock();
+        }
+        //every offset up to durable was added to inFlight before durable was read
+        Long oldest = inFlight.ceiling(Long.MIN_VALUE);
+        long watermark = oldest == null ? durable : Math.min(durable, oldest - 1);
+        if (watermark <= checkpoint)
+            return;
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.putLong(watermark).flip();
+        checkpointChannel.write(buffer, 0);
+        checkpointChannel.force(false);
+        checkpoint = watermark;
+        lock.lock();
+        try {
+            while (segments.size() > 1) {
+                Iterator<Segment> iterator = segments.iterator();
+                Segment oldestSegment = iterator.next();
+                if (iterator.next().firstOffset - 1 > watermark)
+                    break;
+                segments.removeFirst();
+                oldestSegment.delete(eventDistributor);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * forces the full segment and creates a new one, must be called while holding the lock
+     * @param full the full segment
+     * @return the new segment
+     * @throws IOException if unable to create the segment
+     */
+    private Segment roll(Segment full) throws IOException {
+        full.force();
+        Segment segment = Segment.create(directory, nextOffset, segmentSize);
+        segments.addLast(segment);
+        return segment;
+    }
+
+    /**
+     * one memory-mapped file of the log
+     */
+    private static final class Segment {
+        private final File file;
+        private final long firstOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        //guarded by this, true if unmapped, the buffer must not be accessed anymore
+        private boolean deleted = false;
+
+        private Segment(File file, long firstOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.firstOffset = firstOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(File directory, long firstOffset, int size) throws IOException {
+            File file = new File(directory, String.format("%s%020d%s", SEGMENT_PREFIX, firstOffset, SEGMENT_SUFFIX));
+            return open(file, size);
+        }
+
+        private static Segment open(File file, int size) throws IOException {
+            String name = file.getName();
+            long firstOffset;
+            try {
+                firstOffset = Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+            } catch (NumberFormatException e) {
+                throw new IOException("illegal segment-name: " + name, e);
+            }
+            FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+            long length = Math.max(channel.size(), size);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            return new Segment(file, firstOffset, channel, buffer);
+        }
+
+        /**
+         * forces the segment to disk, does nothing if it was already deleted
+         */
+        private synchronized void force() {
+            if (!deleted)
+                buffer.force();
+        }
+
+        /**
+         * appends the record at the current position
+         */
+        private void append(long offset, int crc, byte[] payload) {
+            int position = buffer.position();
+            buffer.putInt(position + 4, crc);
+            buffer.putLong(position + 8, offset);
+            buffer.position(position + HEADER);
+            buffer.put(payload);
+            //the length marks the record as present
+            buffer.putInt(position, payload.length);
+        }
+
+        /**
+         * reads all the valid records and positions the buffer after the last one, the rest of the segment gets
+         * cleared
+         * @param last the offset of the previous record
+         * @param checkpoint the checkpoint, older records are skipped
+         * @param recovered the map to add the records to
+         * @param eventDistributor used for logging
+         * @return the offset of the last valid record
+         */
+        private long read(long last, long checkpoint, Map<Long, EventRecord> recovered,
+                          EventDistributor eventDistributor) {
+            buffer.position(0);
+            while (buffer.remaining() >= HEADER) {
+                int position = buffer.position();
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > buffer.remaining() - HEADER)
+                    break;
+                int crc = buffer.getInt(position + 4);
+                long offset = buffer.getLong(position + 8);
+                byte[] payload = new byte[length];
+                buffer.position(position + HEADER);
+                buffer.get(payload);
+                CRC32 check = new CRC32();
+                check.update(payload);
+                if ((int) check.getValue() != crc || offset <= last) {
+                    buffer.position(position);
+                    break;
+                }
+                last = offset;
+                if (offset > checkpoint) {
+                    try {
+                        recovered.put(offset, EventRecord.fromBytes(payload));
+                    } catch (IOException e) {
+                        eventDistributor.error("unable to read the Event with the offset " + offset, e);
+                    }
+                }
+            }
+            //clear the rest (e.g. a torn record), so it can't be misread after appending
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                if (buffer.get(i) != 0)
+                    buffer.put(i, (byte) 0);
+            }
+            return last;
+        }
+
+        private void delete(EventDistributor eventDistributor) {
+            synchronized (this) {
+                deleted = true;
+                try {
+                    unmap(buffer);
+                } catch (ReflectiveOperationException | RuntimeException e) {
+                    eventDistributor.debug("unable to unmap " + file + ", it stays mapped until garbage-collected", e);
+                }
+            }
+            try {
+                channel.close();
+            } catch (IOException e) {
+                eventDistributor.debug("unable to close " + file, e);
+            }
+            if (!file.delete())
+                eventDistributor.debug("unable to delete " + file);
+        }
+
+        /**
+         * releases the mapping of the buffer immediately instead of when it gets garbage-collected, the buffer must
+         * not be accessed afterwards
+         * @param buffer the buffer to unmap
+         * @throws ReflectiveOperationException if the cleaner of the buffer is not accessible
+         */
+        private static void unmap(MappedByteBuffer buffer) throws ReflectiveOperationException {
+            Method cleaner;
+            try {
+                //java 8: ((DirectBuffer) buffer).cleaner().clean()
+                cleaner = buffer.getClass().getMethod("cleaner");
+                cleaner.setAccessible(true);
+            } catch (NoSuchMethodException | RuntimeException e) {
+                //java 9+: the cleaner is encapsulated, but Unsafe is able to invoke it
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), buffer);
+                return;
+            }
+            Object clean = cleaner.invoke(buffer);
+            if (clean != null)
+                clean.getClass().getMethod("clean").invoke(clean);
+        }
+    }
+}
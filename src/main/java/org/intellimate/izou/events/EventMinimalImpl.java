@@ -5,40 +5,68 @@ import org.intellimate.izou.resource.ListResourceMinimalImpl;
 import org.intellimate.izou.resource.ListResourceProvider;
 import org.intellimate.izou.resource.ResourceModel;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.*;
 import java.util.function.Consumer;
 
 /**
  * this is a minimal implementation of an Event. Do not use this outside Izou! It will change between Versions!
+ * <p>
+ * The descriptors are copied when the Event is created, the Event only hands out immutable views of them, so
+ * {@link #getDescriptors()}, {@link #getAllInformations()} and {@link #containsDescriptor(String)} do not allocate.
+ * The hash code and the {@link DescriptorSet} are computed once.
+ * </p>
  * @author LeanderK
  * @version 1.0
  */
 public class EventMinimalImpl implements EventModel<EventMinimalImpl> {
+    private static final Consumer<EventLifeCycle> NO_CALLBACK = eventLifeCycle -> {};
     private final String type;
     private final Identification source;
     private final List<String> descriptors;
+    //the descriptors and the type
+    private final List<String> allInformations;
+    private final DescriptorSet descriptorSet;
+    private final int hash;
     private final ListResourceProvider listResourceContainer;
     private final Consumer<EventLifeCycle> callback;
+    private final EventPriority priority;
+    private final long timeToLive;
     private final EventBehaviourControllerImpl eventBehaviourController;
 
     public EventMinimalImpl(String type, Identification source, List<String> descriptors) {
-        this.type = type;
-        this.source = source;
-        this.descriptors = descriptors;
-        this.listResourceContainer = new ListResourceMinimalImpl();
-        callback = eventLifeCycle ->{};
-        eventBehaviourController = new EventBehaviourControllerImpl();
+        this(type, source, descriptors, null, EventPriority.NORMAL);
     }
 
     public EventMinimalImpl(String type, Identification source, List<String> descriptors, Consumer<EventLifeCycle> callback) {
+        this(type, source, descriptors, callback, EventPriority.NORMAL);
+    }
+
+    public EventMinimalImpl(String type, Identification source, List<String> descriptors,
+                            Consumer<EventLifeCycle> callback, EventPriority priority) {
+        this(type, source, descriptors, callback, priority, 0);
+    }
+
+    public EventMinimalImpl(String type, Identification source, List<String> descriptors,
+                            Consumer<EventLifeCycle> callback, EventPriority priority, long timeToLive) {
         this.type = type;
         this.source = source;
-        this.descriptors = descriptors;
+        int size = descriptors != null ? descriptors.size() : 0;
+        String[] informations = new String[size + 1];
+        if (descriptors != null)
+            descriptors.toArray(informations);
+        informations[size] = type;
+        this.allInformations = Collections.unmodifiableList(Arrays.asList(informations));
+        this.descriptors = allInformations.subList(0, size);
+        this.descriptorSet = DescriptorSet.of(allInformations);
         this.listResourceContainer = new ListResourceMinimalImpl();
-        this.callback = callback;
+        this.callback = callback != null ? callback : NO_CALLBACK;
+        this.priority = priority != null ? priority : EventPriority.NORMAL;
+        this.timeToLive = Math.max(0, timeToLive);
         eventBehaviourController = new EventBehaviourControllerImpl();
+        int result = type != null ? type.hashCode() : 0;
+        result = 31 * result + (source != null ? source.hashCode() : 0);
+        result = 31 * result + this.descriptors.hashCode();
+        hash = result;
     }
 
     /**
@@ -93,7 +121,7 @@ public class EventMinimalImpl implements EventModel<EventMinimalImpl> {
 
     /**
      * returns a List containing all the Descriptors.
-     * @return a List containing the Descriptors
+     * @return an immutable List containing the Descriptors
      */
     @Override
     public List<String> getDescriptors() {
@@ -102,13 +130,20 @@ public class EventMinimalImpl implements EventModel<EventMinimalImpl> {
 
     /**
      * returns a List containing all the Descriptors and the type.
-     * @return a List containing the Descriptors
+     * @return an immutable List containing the Descriptors and the type
      */
     @Override
     public List<String> getAllInformations() {
-        ArrayList<String> strings = new ArrayList<>(descriptors);
-        strings.add(type);
-        return strings;
+        return allInformations;
+    }
+
+    /**
+     * returns the Descriptors and the type as a DescriptorSet.
+     * @return the DescriptorSet of the Event
+     */
+    @Override
+    public DescriptorSet getDescriptorSet() {
+        return descriptorSet;
     }
 
     /**
@@ -120,7 +155,7 @@ public class EventMinimalImpl implements EventModel<EventMinimalImpl> {
      */
     @Override
     public boolean containsDescriptor(String descriptor) {
-        return descriptors.contains(descriptor) || type.equals(descriptor);
+        return descriptorSet.contains(descriptor);
     }
 
     @Override
@@ -130,18 +165,16 @@ public class EventMinimalImpl implements EventModel<EventMinimalImpl> {
 
         EventMinimalImpl that = (EventMinimalImpl) o;
 
+        if (hash != that.hash) return false;
         if (type != null ? !type.equals(that.type) : that.type != null) return false;
         if (source != null ? !source.equals(that.source) : that.source != null) return false;
-        return !(descriptors != null ? !descriptors.equals(that.descriptors) : that.descriptors != null);
+        return descriptors.equals(that.descriptors);
 
     }
 
     @Override
     public int hashCode() {
-        int result = type != null ? type.hashCode() : 0;
-        result = 31 * result + (source != null ? source.hashCode() : 0);
-        result = 31 * result + (descriptors != null ? descriptors.hashCode() : 0);
-        return result;
+        return hash;
     }
 
     /**
@@ -166,6 +199,36 @@ public class EventMinimalImpl implements EventModel<EventMinimalImpl> {
         callback.accept(eventLifeCycle);
     }
 
+    /**
+     * returns whether the Event wants to get notified when the different lifecycle-stages got reached.
+     *
+     * @return true if a callback was passed, false if not
+     */
+    @Override
+    public boolean hasLifecycleCallback() {
+        return callback != NO_CALLBACK;
+    }
+
+    /**
+     * returns the priority-class of the Event.
+     *
+     * @return the priority of the Event
+     */
+    @Override
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * returns how long the Event is useful, measured from the time it was fired.
+     *
+     * @return the time to live in milliseconds or 0 if the Event never expires
+     */
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
     /**
      * An ID must always be unique.
      * A Class like Activator or OutputPlugin can just provide their .class.getCanonicalName()
@@ -62,6 +62,19 @@ public interface EventModel<X extends EventModel> extends Identifiable {
      */
     List<String> getAllInformations();
 
+    /**
+     * returns the Descriptors and the type as a DescriptorSet, used to match the Event with the listeners, the
+     * ResourceBuilders and the EventsControllers.
+     * <p>
+     * The default implementation resolves {@link #getAllInformations()} on every call, implementations should compute
+     * it once.
+     * </p>
+     * @return the DescriptorSet of the Event
+     */
+    default DescriptorSet getDescriptorSet() {
+        return DescriptorSet.of(getAllInformations());
+    }
+
     /**
      * returns whether the event contains the specific descriptor.
      * this method also checks whether it matches the type.
@@ -82,4 +95,38 @@ public interface EventModel<X extends EventModel> extends Identifiable {
      * @param eventLifeCycle the lifecycle reached.
      */
     void lifecycleCallback(EventLifeCycle eventLifeCycle);
+
+    /**
+     * returns whether the Event wants to get notified when the different lifecycle-stages got reached.
+     * If false, lifecycleCallback will not get called.
+     * @return true if lifecycleCallback should be called, false if not
+     */
+    default boolean hasLifecycleCallback() {
+        return true;
+    }
+
+    /**
+     * returns the priority-class of the Event.
+     * <p>
+     * Events with a higher priority get processed before waiting Events with a lower priority.
+     * </p>
+     * @return the priority of the Event
+     */
+    default EventPriority getPriority() {
+        return EventPriority.NORMAL;
+    }
+
+    /**
+     * returns how long the Event is useful, measured from the time it was fired.
+     * <p>
+     * Before every stage, the EventDistributor checks whether the Event expired. An expired Event is not processed any
+     * further, it reaches {@link EventLifeCycle#CANCELED} instead. Use it for Events whose output is worthless when it
+     * comes too late, e.g. a spoken answer.
+     * </p>
+     * @return the time to live in milliseconds or 0 if the Event never expires (or the default of the EventDistributor
+     *         applies)
+     */
+    default long getTimeToLive() {
+        return 0;
+    }
 }
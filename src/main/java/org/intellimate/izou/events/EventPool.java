@@ -0,0 +1,168 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * A pool of {@link PooledEvent}s, owned by the EventDistributor.
+ * <p>
+ * Events are recycled when their last reference was released and reused by the next acquire, at most the capacity of
+ * the pool are kept. If the leak-detection is enabled, every acquired Event remembers where it was acquired: an Event
+ * which got garbage-collected without being released is logged with this stack-trace. The leaks are detected while
+ * acquiring, the leak-detection is expensive and should only be used while debugging.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public class EventPool {
+    private final EventDistributor eventDistributor;
+    private final ArrayBlockingQueue<PooledEvent> free;
+    private final boolean leakDetection;
+    private final ReferenceQueue<PooledEvent> collected = new ReferenceQueue<>();
+    //keeps the trackers of the acquired Events reachable
+    private final Set<LeakTracker> acquired = ConcurrentHashMap.newKeySet();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder leaked = new LongAdder();
+
+    /**
+     * creates a new EventPool
+     * @param eventDistributor the EventDistributor, used to log the leaks
+     * @param capacity the maximum number of recycled Events kept
+     * @param leakDetection whether to detect Events which were never released
+     */
+    EventPool(EventDistributor eventDistributor, int capacity, boolean leakDetection) {
+        this.eventDistributor = eventDistributor;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.leakDetection = leakDetection;
+    }
+
+    /**
+     * acquires an Event with a reference owned by the caller, firing the Event passes the reference on
+     * @param type the type of the Event
+     * @param source the source of the Event
+     * @param descriptors the descriptors of the Event
+     * @return the Event
+     */
+    public PooledEvent acquire(String type, Identification source, List<String> descriptors) {
+        return acquire(type, source, descriptors, null, EventPriority.NORMAL, 0);
+    }
+
+    /**
+     * acquires an Event with a reference owned by the caller, firing the Event passes the reference on
+     * @param type the type of the Event
+     * @param source the source of the Event
+     * @param descriptors the descriptors of the Event
+     * @param callback the lifecycle-callback or null
+     * @param priority the priority of the Event
+     * @param timeToLive the time to live in milliseconds, 0 to use the default
+     * @return the Event
+     */
+    public PooledEvent acquire(String type, Identification source, List<String> descriptors,
+                               Consumer<EventLifeCycle> callback, EventPriority priority, long timeToLive) {
+        PooledEvent event = free.poll();
+        if (event == null) {
+            event = new PooledEvent(this);
+            created.increment();
+        } else {
+            reused.increment();
+        }
+        event.init(type, source, descriptors, callback, priority, timeToLive);
+        if (leakDetection) {
+            detectLeaks();
+            event.leakTracker = new LeakTracker(event, collected);
+            acquired.add(event.leakTracker);
+        }
+        return event;
+    }
+
+    /**
+     * puts the released Event back into the pool
+     * @param event the Event
+     */
+    void recycle(PooledEvent event) {
+        LeakTracker tracker = event.leakTracker;
+        if (tracker != null) {
+            event.leakTracker = null;
+            acquired.remove(tracker);
+            tracker.clear();
+        }
+        free.offer(event);
+    }
+
+    /**
+     * logs all the acquired Events which got garbage-collected without being released
+     */
+    private void detectLeaks() {
+        LeakTracker tracker;
+        while ((tracker = (LeakTracker) collected.poll()) != null) {
+            if (acquired.remove(tracker)) {
+                leaked.increment();
+                eventDistributor.error("the PooledEvent " + tracker.type + " was never released, acquired at:",
+                        tracker.acquiredAt);
+            }
+        }
+    }
+
+    /**
+     * returns whether the leak-detection is enabled
+     * @return true if enabled
+     */
+    public boolean isLeakDetectionEnabled() {
+        return leakDetection;
+    }
+
+    /**
+     * returns the number of Events waiting to be reused
+     * @return the number of free Events
+     */
+    public int getFreeCount() {
+        return free.size();
+    }
+
+    /**
+     * returns the number of Events created because the pool was empty
+     * @return the number of created Events
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    /**
+     * returns the number of acquires which reused a recycled Event
+     * @return the number of reused Events
+     */
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    /**
+     * returns the number of leaked Events found, always 0 if the leak-detection is disabled
+     * @return the number of leaked Events
+     */
+    public long getLeakedCount() {
+        return leaked.sum();
+    }
+
+    /**
+     * tracks an acquired Event, enqueued when the Event got garbage-collected
+     */
+    static final class LeakTracker extends WeakReference<PooledEvent> {
+        private final String type;
+        private final Exception acquiredAt = new Exception("acquired here");
+
+        private LeakTracker(PooledEvent event, ReferenceQueue<PooledEvent> queue) {
+            super(event, queue);
+            this.type = event.getType();
+        }
+    }
+}
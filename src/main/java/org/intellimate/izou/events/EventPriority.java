@@ -0,0 +1,32 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+/**
+ * This enum contains the different priority-classes of an Event.
+ * <p>
+ * The EventDistributor always processes the waiting Event with the highest priority first, but an Event of a lower
+ * priority that waited too long gets processed before, so it will never starve.
+ * The order of the Events within one partition is only kept for Events of the same priority.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public enum EventPriority {
+    /**
+     * time-critical Events, e.g. stopping or muting a sound.
+     */
+    REAL_TIME,
+    /**
+     * Events directly caused by or visible to the user.
+     */
+    INTERACTIVE,
+    /**
+     * the default priority.
+     */
+    NORMAL,
+    /**
+     * Events nobody waits for, e.g. fired by polling activators.
+     */
+    BACKGROUND
+}
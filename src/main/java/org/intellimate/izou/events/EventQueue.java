@@ -0,0 +1,439 @@
+package org.intellimate.izou.events;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The queue holding all the Events accepted by the EventDistributor which are not yet processed.
+ * <p>
+ * Every lane has its own partition of the queue, but the capacity is shared between all of them. When the queue (or
+ * the quota of the publisher) is exhausted, the {@link OverflowPolicy} decides what happens. Dropped Events get
+ * notified with {@link EventLifeCycle#CANCELED}. DROP_OLDEST drops the oldest Event of the lowest priority, but
+ * never an Event with a higher priority than the new one, then the new one is dropped.
+ * Events which were not added (rejected or interrupted) are marked as completed with {@link EventDispatch#completed()}.
+ * </p>
+ * <p>
+ * Every partition holds one queue for every {@link EventPriority}. The Event with the highest priority is taken first,
+ * unless the first Event of a lower priority waited longer than the starvation-limit, then it gets promoted.
+ * </p>
+ * @version 1.0
+ */
+public class EventQueue {
+    private static final EventPriority[] PRIORITIES = EventPriority.values();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final Condition[] notEmpty;
+    //indexed by lane and then by the ordinal of the priority
+    private final ArrayDeque<EventDispatch>[][] lanes;
+    //guarded by lock, the number of Events waiting in each lane
+    private final int[] laneSizes;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final long starvationLimitNanos;
+    //guarded by lock
+    private volatile int count = 0;
+    //guarded by lock
+    private long sequence = 0;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong promoted = new AtomicLong();
+
+    /**
+     * creates a new EventQueue
+     * @param laneCount the number of lanes
+     * @param capacity the maximum number of waiting Events (shared between all lanes)
+     * @param overflowPolicy what to do if the queue is full
+     * @param starvationLimit the time in milliseconds after which a waiting Event of a lower priority gets promoted
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    EventQueue(int laneCount, int capacity, OverflowPolicy overflowPolicy, long starvationLimit) {
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.starvationLimitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, starvationLimit));
+        lanes = new ArrayDeque[laneCount][PRIORITIES.length];
+        laneSizes = new int[laneCount];
+        notEmpty = new Condition[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            for (int j = 0; j < PRIORITIES.length; j++) {
+                lanes[i][j] = new ArrayDeque<>();
+            }
+            notEmpty[i] = lock.newCondition();
+        }
+    }
+
+    /**
+     * adds the Event to the lane, applying the OverflowPolicy if the queue or the quota of the publisher is exhausted
+     * @param dispatch the Event to add
+     * @param lane the index of the lane
+     * @throws InterruptedException if interrupted while waiting for space
+     * @throws EventQueueFullException if the Event got rejected
+     */
+    void put(EventDispatch dispatch, int lane) throws InterruptedException {
+        List<EventDispatch> cancelled = new ArrayList<>(1);
+        boolean added = false;
+        try {
+            lock.lockInterruptibly();
+            try {
+                enqueue(dispatch, lane, cancelled, overflowPolicy);
+                added = true;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            if (!added)
+                dispatch.completed();
+            cancel(cancelled);
+        }
+    }
+
+    /**
+     * adds the Event to the lane without ever waiting for space or throwing.
+     * <p>
+     * If the queue (or the quota of the publisher) is exhausted and the OverflowPolicy is DROP_OLDEST, it applies as
+     * usual. With every other OverflowPolicy the new Event is dropped.
+     * </p>
+     * @param dispatch the Event to add
+     * @param lane the index of the lane
+     * @return true if added, false if dropped
+     */
+    boolean offer(EventDispatch dispatch, int lane) {
+        OverflowPolicy policy = overflowPolicy == OverflowPolicy.DROP_OLDEST
+                ? OverflowPolicy.DROP_OLDEST : OverflowPolicy.DROP_NEWEST;
+        List<EventDispatch> cancelled = new ArrayList<>(1);
+        lock.lock();
+        try {
+            enqueue(dispatch, lane, cancelled, policy);
+        } catch (InterruptedException e) {
+            //never thrown, the policies used do not wait
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
+        }
+        cancel(cancelled);
+        return !cancelled.contains(dispatch);
+    }
+
+    /**
+     * adds all the Events in order, acquiring the lock only once (unless it has to wait for space).
+     * <p>
+     * The OverflowPolicy is applied to every Event individually. If an Event gets rejected, the Events before it stay
+     * in the queue while the Events after it are not added.
+     * </p>
+     * @param dispatches the Events to add
+     * @param lanes the index of the lane for every Event
+     * @throws InterruptedException if interrupted while waiting for space
+     * @throws EventQueueFullException if an Event got rejected
+     */
+    void putAll(List<EventDispatch> dispatches, int[] lanes) throws InterruptedException {
+        List<EventDispatch> cancelled = new ArrayList<>(1);
+        int added = 0;
+        try {
+            lock.lockInterruptibly();
+            try {
+                for (; added < dispatches.size(); added++) {
+                    enqueue(dispatches.get(added), lanes[added], cancelled, overflowPolicy);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            //the remaining Events were not added
+            for (int i = added; i < dispatches.size(); i++) {
+                dispatches.get(i).completed();
+            }
+            cancel(cancelled);
+        }
+    }
+
+    /**
+     * adds the Event to the lane, must be called while holding the lock
+     * @param dispatch the Event to add
+     * @param lane the index of the lane
+     * @param cancelled the list where all the dropped Events get added
+     * @param policy the OverflowPolicy to apply
+     * @throws InterruptedException if interrupted while waiting for space
+     * @throws EventQueueFullException if the Event got rejected
+     */
+    private void enqueue(EventDispatch dispatch, int lane, List<EventDispatch> cancelled, OverflowPolicy policy)
+            throws InterruptedException {
+        PublisherQuota quota = dispatch.getQuota();
+        while (count >= capacity || (quota != null && quota.isExhausted())) {
+            boolean quotaExhausted = count < capacity;
+            switch (policy) {
+                case BLOCK:
+                    notFull.await();
+                    break;
+                case REJECT:
+                    rejected.incrementAndGet();
+                    if (quota != null)
+                        quota.dropped();
+                    throw new EventQueueFullException(quotaExhausted
+                            ? "quota of " + quota.getIdentification().getID() + " exhausted"
+                            : "EventQueue full, capacity: " + capacity);
+                case DROP_OLDEST:
+                    EventDispatch oldest = removeOldest(quotaExhausted ? quota : null, dispatch.getPriority());
+                    if (oldest == null) {
+                        //nothing to evict, drop the new one
+                        dropNewest(dispatch, cancelled);
+                        return;
+                    }
+                    cancelled.add(oldest);
+                    break;
+                case DROP_NEWEST:
+                    dropNewest(dispatch, cancelled);
+                    return;
+            }
+        }
+        dispatch.setSequence(sequence++);
+        dispatch.setEnqueued(System.nanoTime());
+        lanes[lane][dispatch.getPriority().ordinal()].addLast(dispatch);
+        laneSizes[lane]++;
+        count++;
+        if (quota != null)
+            quota.enqueued();
+        accepted.incrementAndGet();
+        notEmpty[lane].signal();
+    }
+
+    /**
+     * drops the new Event
+     * @param dispatch the Event to drop
+     * @param cancelled the list where all the dropped Events get added
+     */
+    private void dropNewest(EventDispatch dispatch, List<EventDispatch> cancelled) {
+        dropped.incrementAndGet();
+        if (dispatch.getQuota() != null)
+            dispatch.getQuota().dropped();
+        cancelled.add(dispatch);
+    }
+
+    /**
+     * notifies the dropped Events
+     * @param cancelled the dropped Events
+     */
+    private void cancel(List<EventDispatch> cancelled) {
+        for (EventDispatch dispatch : cancelled) {
+            dispatch.lifecycle(EventLifeCycle.CANCELED);
+        }
+    }
+
+    /**
+     * removes the oldest Event (of the publisher) with the lowest priority, at most the priority of the new Event
+     * @param quota the quota of the publisher or null for all publishers
+     * @param highest the priority of the new Event, Events with a higher priority are never removed
+     * @return the removed Event or null if none found
+     */
+    private EventDispatch removeOldest(PublisherQuota quota, EventPriority highest) {
+        for (int priority = PRIORITIES.length - 1; priority >= highest.ordinal(); priority--) {
+            EventDispatch oldest = null;
+            int oldestLane = -1;
+            for (int i = 0; i < lanes.length; i++) {
+                for (EventDispatch candidate : lanes[i][priority]) {
+                    if (quota != null && candidate.getQuota() != quota)
+                        continue;
+                    if (oldest == null || candidate.getSequence() < oldest.getSequence()) {
+                        oldest = candidate;
+                        oldestLane = i;
+                    }
+                    //the queues are ordered
+                    break;
+                }
+            }
+            if (oldest != null) {
+                lanes[oldestLane][priority].removeFirstOccurrence(oldest);
+                removed(oldest, oldestLane);
+                dropped.incrementAndGet();
+                if (oldest.getQuota() != null)
+                    oldest.getQuota().dropped();
+                return oldest;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * retrieves and removes the next Event of the lane, waiting if necessary.
+     * <p>
+     * This is the first Event with the highest priority, or, if the first Event of a lower priority waited longer than
+     * the starvation-limit, the first Event which waited the longest.
+     * </p>
+     * @param lane the index of the lane
+     * @return the next Event
+     * @throws InterruptedException if interrupted while waiting
+     */
+    EventDispatch take(int lane) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (laneSizes[lane] == 0) {
+                notEmpty[lane].await();
+            }
+            ArrayDeque<EventDispatch>[] queues = lanes[lane];
+            int highest = 0;
+            while (queues[highest].isEmpty()) {
+                highest++;
+            }
+            int next = highest;
+            long now = System.nanoTime();
+            long longestWait = starvationLimitNanos;
+            for (int priority = highest + 1; priority < queues.length; priority++) {
+                EventDispatch first = queues[priority].peekFirst();
+                if (first != null && now - first.getEnqueued() > longestWait) {
+                    longestWait = now - first.getEnqueued();
+                    next = priority;
+                }
+            }
+            if (next != highest)
+                promoted.incrementAndGet();
+            EventDispatch dispatch = queues[next].pollFirst();
+            removed(dispatch, lane);
+            return dispatch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * updates the counters after an Event was removed, must be called while holding the lock
+     * @param dispatch the removed Event
+     * @param lane the lane the Event was removed from
+     */
+    private void removed(EventDispatch dispatch, int lane) {
+        laneSizes[lane]--;
+        count--;
+        if (dispatch.getQuota() != null)
+            dispatch.getQuota().dequeued();
+        notFull.signalAll();
+    }
+
+    /**
+     * returns the number of waiting Events
+     * @return the number of waiting Events
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * returns the number of Events waiting in the lane
+     * @param lane the index of the lane
+     * @return the number of waiting Events
+     */
+    public int size(int lane) {
+        lock.lock();
+        try {
+            return laneSizes[lane];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * returns the number of waiting Events with the priority
+     * @param priority the priority
+     * @return the number of waiting Events
+     */
+    public int size(EventPriority priority) {
+        lock.lock();
+        try {
+            int size = 0;
+            for (ArrayDeque<EventDispatch>[] lane : lanes) {
+                size += lane[priority.ordinal()].size();
+            }
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * returns all the waiting Events, lane by lane, the highest priority first
+     * @return a new List of the Events
+     */
+    List<EventModel<?>> snapshot() {
+        lock.lock();
+        try {
+            List<EventModel<?>> snapshot = new ArrayList<>(count);
+            for (ArrayDeque<EventDispatch>[] lane : lanes) {
+                for (ArrayDeque<EventDispatch> queue : lane) {
+                    for (EventDispatch dispatch : queue) {
+                        snapshot.add(dispatch.getEvent());
+                    }
+                }
+            }
+            return snapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * returns the number of lanes
+     * @return the number of lanes
+     */
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * returns the maximum number of waiting Events
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * returns what happens if the queue is full
+     * @return the OverflowPolicy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * returns the time in milliseconds after which a waiting Event of a lower priority gets promoted
+     * @return the starvation-limit
+     */
+    public long getStarvationLimit() {
+        return TimeUnit.NANOSECONDS.toMillis(starvationLimitNanos);
+    }
+
+    /**
+     * returns the number of Events accepted since the start
+     * @return the number of accepted Events
+     */
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    /**
+     * returns the number of Events dropped since the start (DROP_OLDEST or DROP_NEWEST)
+     * @return the number of dropped Events
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * returns the number of Events rejected since the start (REJECT)
+     * @return the number of rejected Events
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * returns the number of Events which were taken before an Event of a higher priority because they waited longer
+     * than the starvation-limit
+     * @return the number of promoted Events
+     */
+    public long getPromotedCount() {
+        return promoted.get();
+    }
+}
@@ -0,0 +1,17 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+/**
+ * Exception thrown if an Event was rejected because the queue of the EventDistributor (or the quota of the publisher)
+ * is exhausted.
+ * @version 1.0
+ */
+@AddonAccessible
+public class EventQueueFullException extends IllegalStateException {
+    private static final long serialVersionUID = 1L;
+
+    public EventQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,96 @@
+package org.intellimate.izou.events;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A read-only view of the waiting Events of an {@link EventQueue}, returned by {@link EventDistributor#getEvents()}.
+ * <p>
+ * The Events are only taken by the lanes, so every method modifying the queue throws an
+ * {@link UnsupportedOperationException}. The iterator works on a snapshot of the waiting Events.
+ * </p>
+ * @version 1.0
+ */
+class EventQueueView extends AbstractQueue<EventModel<?>> implements BlockingQueue<EventModel<?>> {
+    private final EventQueue events;
+
+    EventQueueView(EventQueue events) {
+        this.events = events;
+    }
+
+    @Override
+    public Iterator<EventModel<?>> iterator() {
+        return Collections.unmodifiableList(events.snapshot()).iterator();
+    }
+
+    @Override
+    public int size() {
+        return events.size();
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Math.max(0, events.getCapacity() - events.size());
+    }
+
+    @Override
+    public EventModel<?> peek() {
+        List<EventModel<?>> snapshot = events.snapshot();
+        return snapshot.isEmpty() ? null : snapshot.get(0);
+    }
+
+    @Override
+    public boolean offer(EventModel<?> eventModel) {
+        throw new UnsupportedOperationException("the EventQueue is read-only, use an EventPublisher to fire Events");
+    }
+
+    @Override
+    public void put(EventModel<?> eventModel) {
+        throw new UnsupportedOperationException("the EventQueue is read-only, use an EventPublisher to fire Events");
+    }
+
+    @Override
+    public boolean offer(EventModel<?> eventModel, long timeout, TimeUnit unit) {
+        throw new UnsupportedOperationException("the EventQueue is read-only, use an EventPublisher to fire Events");
+    }
+
+    @Override
+    public EventModel<?> poll() {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+
+    @Override
+    public EventModel<?> take() {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+
+    @Override
+    public EventModel<?> poll(long timeout, TimeUnit unit) {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+
+    @Override
+    public int drainTo(Collection<? super EventModel<?>> c) {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+
+    @Override
+    public int drainTo(Collection<? super EventModel<?>> c, int maxElements) {
+        throw new UnsupportedOperationException("the EventQueue is read-only");
+    }
+}
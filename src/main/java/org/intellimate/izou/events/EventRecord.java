@@ -0,0 +1,328 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.identification.IdentificationManagerM;
+import org.intellimate.izou.resource.ResourceMinimalImpl;
+import org.intellimate.izou.resource.ResourceModel;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The persistent form of an Event: the type, the ID of the source, the descriptors, the priority and, for the durable
+ * log, the deadline and the Resources.
+ * <p>
+ * The deadline is the wall-clock time the Event expires (see {@link EventModel#getTimeToLive()}), so it survives a
+ * restart. Like the {@link EventRecorder}, only the Resources with a value of a plain type (String, Boolean, Integer,
+ * Long, Float or Double) or none are persisted, other values are never deserialized from the disk. Lifecycle-callbacks
+ * can not be persisted, a restored Event is an {@link EventMinimalImpl} without one.
+ * </p>
+ * @version 1.0
+ */
+class EventRecord {
+    private static final byte VERSION = 1;
+    private final String type;
+    private final String sourceID;
+    private final List<String> descriptors;
+    private final EventPriority priority;
+    //System.currentTimeMillis() when the Event expires, 0 if it never expires
+    private final long deadline;
+    private final List<ResourceRecord> resources;
+
+    EventRecord(String type, String sourceID, List<String> descriptors, EventPriority priority) {
+        this(type, sourceID, descriptors, priority, 0, Collections.emptyList());
+    }
+
+    private EventRecord(String type, String sourceID, List<String> descriptors, EventPriority priority, long deadline,
+                        List<ResourceRecord> resources) {
+        this.type = type;
+        this.sourceID = sourceID;
+        this.descriptors = descriptors;
+        this.priority = priority;
+        this.deadline = deadline;
+        this.resources = resources;
+    }
+
+    /**
+     * creates the record of the Event
+     * @param event the Event
+     * @return the record
+     */
+    static EventRecord of(EventModel<?> event) {
+        EventPriority priority = event.getPriority();
+        return new EventRecord(event.getType(), event.getSource().getID(), event.getDescriptors(),
+                priority != null ? priority : EventPriority.NORMAL);
+    }
+
+    /**
+     * creates the record of the Event including its deadline and its Resources with a value of a plain type
+     * @param event the Event
+     * @param timeToLive the time to live of the Event in milliseconds, 0 if it never expires
+     * @return the record
+     */
+    static EventRecord durable(EventModel<?> event, long timeToLive) {
+        EventPriority priority = event.getPriority();
+        @SuppressWarnings("rawtypes")
+        List<ResourceModel> eventResources = event.getListResourceContainer().provideAllResources();
+        List<ResourceRecord> resources = new ArrayList<>(eventResources.size());
+        for (ResourceModel<?> resource : eventResources) {
+            if (ResourceRecord.isPersistable(resource.getResource()))
+                resources.add(ResourceRecord.of(resource));
+        }
+        return new EventRecord(event.getType(), event.getSource().getID(), event.getDescriptors(),
+                priority != null ? priority : EventPriority.NORMAL,
+                timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0, resources);
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getSourceID() {
+        return sourceID;
+    }
+
+    List<String> getDescriptors() {
+        return descriptors;
+    }
+
+    EventPriority getPriority() {
+        return priority;
+    }
+
+    /**
+     * returns when the Event expires
+     * @return System.currentTimeMillis() when the Event expires, 0 if it never expires
+     */
+    long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * returns whether the Event is expired
+     * @param now System.currentTimeMillis()
+     * @return true if expired
+     */
+    boolean isExpired(long now) {
+        return deadline != 0 && now >= deadline;
+    }
+
+    int getResourceCount() {
+        return resources.size();
+    }
+
+    /**
+     * restores the Event with the remaining time to live, the source has to be registered with the
+     * IdentificationManager
+     * @param eventDistributor the EventDistributor, used to get the IdentificationManager
+     * @return the Event or empty if the source is not (yet) registered
+     */
+    Optional<EventModel<?>> toEvent(EventDistributor eventDistributor) {
+        IdentificationManagerM identificationManager = eventDistributor.getMain().getIdentificationManager();
+        Optional<Identification> source = identificationManager.getIdentification(sourceID);
+        long timeToLive = deadline != 0 ? Math.max(1, deadline - System.currentTimeMillis()) : 0;
+        return source.map(id -> {
+            EventMinimalImpl event = new EventMinimalImpl(type, id, new ArrayList<>(descriptors), null, priority,
+                    timeToLive);
+            for (ResourceRecord resource : resources) {
+                event.addResource(resource.toResource(identificationManager));
+            }
+            return event;
+        });
+    }
+
+    /**
+     * writes the record
+     * @param out the output to write to
+     * @throws IOException if an I/O error occurs
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeUTF(type);
+        out.writeUTF(sourceID);
+        out.writeByte(priority.ordinal());
+        if (descriptors.size() > 0xFFFF)
+            throw new IOException("too many descriptors: " + descriptors.size());
+        out.writeShort(descriptors.size());
+        for (String descriptor : descriptors) {
+            out.writeUTF(descriptor);
+        }
+        out.writeLong(deadline);
+        if (resources.size() > 0xFFFF)
+            throw new IOException("too many resources: " + resources.size());
+        out.writeShort(resources.size());
+        for (ResourceRecord resource : resources) {
+            resource.write(out);
+        }
+    }
+
+    /**
+     * reads a record
+     * @param in the input to read from
+     * @return the record
+     * @throws IOException if an I/O error occurs or the format is unknown
+     */
+    static EventRecord read(DataInput in) throws IOException {
+        byte version = in.readByte();
+        if (version != VERSION)
+            throw new IOException("unknown record-version: " + version);
+        String type = in.readUTF();
+        String sourceID = in.readUTF();
+        int priority = in.readByte();
+        if (priority < 0 || priority >= EventPriority.values().length)
+            throw new IOException("unknown priority: " + priority);
+        int size = in.readUnsignedShort();
+        List<String> descriptors = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            descriptors.add(in.readUTF());
+        }
+        long deadline = in.readLong();
+        int resourceCount = in.readUnsignedShort();
+        List<ResourceRecord> resources = new ArrayList<>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            resources.add(ResourceRecord.read(in));
+        }
+        return new EventRecord(type, sourceID, Collections.unmodifiableList(descriptors),
+                EventPriority.values()[priority], deadline, Collections.unmodifiableList(resources));
+    }
+
+    /**
+     * serializes the record
+     * @return the serialized record
+     * @throws IOException if the record is not serializable, e.g. a descriptor is too long
+     */
+    byte[] toBytes() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        write(new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    /**
+     * deserializes the record
+     * @param bytes the serialized record
+     * @return the record
+     * @throws IOException if the format is unknown
+     */
+    static EventRecord fromBytes(byte[] bytes) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * the persistent form of a Resource, only values of a plain type are persisted
+     */
+    private static final class ResourceRecord {
+        private static final byte NO_VALUE = 0;
+        private static final byte STRING_VALUE = 1;
+        private static final byte BOOLEAN_VALUE = 2;
+        private static final byte INTEGER_VALUE = 3;
+        private static final byte LONG_VALUE = 4;
+        private static final byte FLOAT_VALUE = 5;
+        private static final byte DOUBLE_VALUE = 6;
+        private final String resourceID;
+        //the IDs or empty if none
+        private final String providerID;
+        private final String consumerID;
+        //null or an instance of a plain type
+        private final Object value;
+
+        private ResourceRecord(String resourceID, String providerID, String consumerID, Object value) {
+            this.resourceID = resourceID;
+            this.providerID = providerID;
+            this.consumerID = consumerID;
+            this.value = value;
+        }
+
+        /**
+         * returns whether the value can be persisted
+         * @param value the value of the Resource
+         * @return true if null or of a plain type
+         */
+        private static boolean isPersistable(Object value) {
+            return value == null || value instanceof String || value instanceof Boolean || value instanceof Integer
+                    || value instanceof Long || value instanceof Float || value instanceof Double;
+        }
+
+        private static ResourceRecord of(ResourceModel<?> resource) {
+            return new ResourceRecord(resource.getResourceID(),
+                    resource.hasProvider() ? resource.getProvider().getID() : "",
+                    resource.getConsumer() != null ? resource.getConsumer().getID() : "", resource.getResource());
+        }
+
+        private void write(DataOutput out) throws IOException {
+            out.writeUTF(resourceID);
+            out.writeUTF(providerID);
+            out.writeUTF(consumerID);
+            if (value instanceof String) {
+                out.writeByte(STRING_VALUE);
+                out.writeUTF((String) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN_VALUE);
+                out.writeBoolean((Boolean) value);
+            } else if (value instanceof Integer) {
+                out.writeByte(INTEGER_VALUE);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG_VALUE);
+                out.writeLong((Long) value);
+            } else if (value instanceof Float) {
+                out.writeByte(FLOAT_VALUE);
+                out.writeFloat((Float) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE_VALUE);
+                out.writeDouble((Double) value);
+            } else {
+                out.writeByte(NO_VALUE);
+            }
+        }
+
+        private static ResourceRecord read(DataInput in) throws IOException {
+            String resourceID = in.readUTF();
+            String providerID = in.readUTF();
+            String consumerID = in.readUTF();
+            Object value;
+            byte kind = in.readByte();
+            switch (kind) {
+                case NO_VALUE:
+                    value = null;
+                    break;
+                case STRING_VALUE:
+                    value = in.readUTF();
+                    break;
+                case BOOLEAN_VALUE:
+                    value = in.readBoolean();
+                    break;
+                case INTEGER_VALUE:
+                    value = in.readInt();
+                    break;
+                case LONG_VALUE:
+                    value = in.readLong();
+                    break;
+                case FLOAT_VALUE:
+                    value = in.readFloat();
+                    break;
+                case DOUBLE_VALUE:
+                    value = in.readDouble();
+                    break;
+                default:
+                    throw new IOException("unknown resource-value: " + kind);
+            }
+            return new ResourceRecord(resourceID, providerID, consumerID, value);
+        }
+
+        /**
+         * restores the Resource, the provider and the consumer are dropped if not registered
+         * @param identificationManager the IdentificationManager to look up the provider and the consumer
+         * @return the Resource
+         */
+        private ResourceModel<?> toResource(IdentificationManagerM identificationManager) {
+            Identification provider = providerID.isEmpty() ? null
+                    : identificationManager.getIdentification(providerID).orElse(null);
+            Identification consumer = consumerID.isEmpty() ? null
+                    : identificationManager.getIdentification(consumerID).orElse(null);
+            return new ResourceMinimalImpl<>(resourceID, provider, value, consumer);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.resource.ResourceModel;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records all the Events flowing through the EventDistributor into a compact file, which can be replayed with
+ * {@link EventReplay}.
+ * <p>
+ * The file starts with a header (magic number and version), followed by one entry per Event: the time since the start
+ * of the recording in nanoseconds, the length of the entry and the entry itself, consisting of the
+ * {@link EventRecord} and the Resources of the Event (ID, ID of the provider and the value if it is a String, a
+ * Number or a Boolean).
+ * </p>
+ * @version 1.0
+ */
+class EventRecorder {
+    private static final int MAGIC = 0x495A4556;
+    private static final byte VERSION = 1;
+    private static final byte NO_VALUE = 0;
+    private static final byte STRING_VALUE = 1;
+    private static final byte LONG_VALUE = 2;
+    private static final byte DOUBLE_VALUE = 3;
+    private static final byte BOOLEAN_VALUE = 4;
+    private final EventDistributor eventDistributor;
+    private final File file;
+    private final DataOutputStream out;
+    private final long start = System.nanoTime();
+    //guarded by this
+    private boolean closed = false;
+
+    /**
+     * creates the file and writes the header
+     * @param eventDistributor the EventDistributor, used for logging
+     * @param file the file to record to, gets overwritten
+     * @throws IOException if unable to create the file
+     */
+    EventRecorder(EventDistributor eventDistributor, File file) throws IOException {
+        this.eventDistributor = eventDistributor;
+        this.file = file;
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs())
+            throw new IOException("unable to create " + parent);
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+    }
+
+    /**
+     * records the Event
+     * @param event the Event
+     */
+    void record(EventModel<?> event) {
+        long time = System.nanoTime() - start;
+        byte[] entry;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream entryOut = new DataOutputStream(bytes);
+            EventRecord.of(event).write(entryOut);
+            writeResources(entryOut, event.getListResourceContainer().provideAllResources());
+            entry = bytes.toByteArray();
+        } catch (IOException | RuntimeException e) {
+            eventDistributor.debug("unable to record the Event " + event, e);
+            return;
+        }
+        synchronized (this) {
+            if (closed)
+                return;
+            try {
+                out.writeLong(time);
+                out.writeInt(entry.length);
+                out.write(entry);
+            } catch (IOException e) {
+                eventDistributor.error("unable to record to " + file + ", stopping the recording", e);
+                closed = true;
+            }
+        }
+    }
+
+    /**
+     * flushes the recorded Events to the file
+     */
+    synchronized void flush() {
+        if (closed)
+            return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            eventDistributor.error("unable to flush " + file, e);
+        }
+    }
+
+    /**
+     * flushes and closes the file
+     */
+    synchronized void close() {
+        if (closed)
+            return;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException e) {
+            eventDistributor.error("unable to close " + file, e);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static void writeResources(DataOutputStream out, List<ResourceModel> resources) throws IOException {
+        out.writeShort(Math.min(resources.size(), 0xFFFF));
+        for (int i = 0; i < resources.size() && i < 0xFFFF; i++) {
+            ResourceModel<?> resource = resources.get(i);
+            out.writeUTF(resource.getResourceID());
+            out.writeUTF(resource.hasProvider() ? resource.getProvider().getID() : "");
+            Object value = resource.getResource();
+            if (value instanceof String) {
+                out.writeByte(STRING_VALUE);
+                out.writeUTF((String) value);
+            } else if (value instanceof Double || value instanceof Float) {
+                out.writeByte(DOUBLE_VALUE);
+                out.writeDouble(((Number) value).doubleValue());
+            } else if (value instanceof Number) {
+                out.writeByte(LONG_VALUE);
+                out.writeLong(((Number) value).longValue());
+            } else if (value instanceof Boolean) {
+                out.writeByte(BOOLEAN_VALUE);
+                out.writeBoolean((Boolean) value);
+            } else {
+                out.writeByte(NO_VALUE);
+            }
+        }
+    }
+
+    /**
+     * reads a recording
+     * @param file the recorded file
+     * @return all the recorded Events, in order
+     * @throws IOException if unable to read the file or the file is not a recording
+     */
+    static List<Entry> read(File file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + " is not a recording");
+            byte version = in.readByte();
+            if (version != VERSION)
+                throw new IOException("unknown recording-version: " + version);
+            while (true) {
+                long time;
+                byte[] entry;
+                try {
+                    time = in.readLong();
+                    entry = new byte[in.readInt()];
+                    in.readFully(entry);
+                } catch (EOFException e) {
+                    //the end or a truncated last entry
+                    break;
+                }
+                DataInputStream entryIn = new DataInputStream(new ByteArrayInputStream(entry));
+                EventRecord record = EventRecord.read(entryIn);
+                int size = entryIn.readUnsignedShort();
+                List<ResourceEntry> resources = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    resources.add(readResource(entryIn));
+                }
+                entries.add(new Entry(time, record, Collections.unmodifiableList(resources)));
+            }
+        }
+        return entries;
+    }
+
+    private static ResourceEntry readResource(DataInputStream in) throws IOException {
+        String resourceID = in.readUTF();
+        String providerID = in.readUTF();
+        Object value;
+        byte kind = in.readByte();
+        switch (kind) {
+            case STRING_VALUE:
+                value = in.readUTF();
+                break;
+            case LONG_VALUE:
+                value = in.readLong();
+                break;
+            case DOUBLE_VALUE:
+                value = in.readDouble();
+                break;
+            case BOOLEAN_VALUE:
+                value = in.readBoolean();
+                break;
+            case NO_VALUE:
+                value = null;
+                break;
+            default:
+                throw new IOException("unknown resource-value: " + kind);
+        }
+        return new ResourceEntry(resourceID, providerID.isEmpty() ? null : providerID, value);
+    }
+
+    /**
+     * one recorded Event
+     */
+    static final class Entry {
+        private final long time;
+        private final EventRecord record;
+        private final List<ResourceEntry> resources;
+
+        private Entry(long time, EventRecord record, List<ResourceEntry> resources) {
+            this.time = time;
+            this.record = record;
+            this.resources = resources;
+        }
+
+        /**
+         * returns the time since the start of the recording
+         * @return the time in nanoseconds
+         */
+        long getTime() {
+            return time;
+        }
+
+        EventRecord getRecord() {
+            return record;
+        }
+
+        List<ResourceEntry> getResources() {
+            return resources;
+        }
+    }
+
+    /**
+     * one recorded Resource
+     */
+    static final class ResourceEntry {
+        private final String resourceID;
+        private final String providerID;
+        private final Object value;
+
+        private ResourceEntry(String resourceID, String providerID, Object value) {
+            this.resourceID = resourceID;
+            this.providerID = providerID;
+            this.value = value;
+        }
+
+        String getResourceID() {
+            return resourceID;
+        }
+
+        /**
+         * returns the ID of the provider
+         * @return the ID or null if the Resource had no provider
+         */
+        String getProviderID() {
+            return providerID;
+        }
+
+        /**
+         * returns the value of the Resource
+         * @return the value or null if it was not recordable
+         */
+        Object getValue() {
+            return value;
+        }
+    }
+}
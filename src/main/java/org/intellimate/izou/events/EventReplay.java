@@ -0,0 +1,302 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identifiable;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.main.Main;
+import org.intellimate.izou.resource.ResourceMinimalImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a recording of the {@link EventRecorder} against a running izou-instance to measure the throughput and the
+ * latency of the event-pipeline offline.
+ * <p>
+ * Every source of the recording gets registered as a stub (an Identifiable and an EventPublisher), a no-op listener
+ * and a no-op finished-listener are registered for all recorded types and descriptors. The Events are fired with the
+ * recorded timing divided by the speed, or as fast as possible. The latency of every stage is measured from the
+ * firing to the arrival of the lifecycle-callback, so it includes the delivery of the callback.
+ * </p>
+ * <p>
+ * Usage: {@code EventReplay <recording> [speed]}, where speed is a factor (e.g. 1 for the recorded timing, 10 for
+ * ten times faster) or max (default: 1). Set {@value EventDistributor#RECORD_PROPERTY} to record. Exits with 2 if the
+ * Events did not finish within a minute.
+ * </p>
+ * @version 1.0
+ */
+public class EventReplay {
+    private static final EventLifeCycle[] STAGES = EventLifeCycle.values();
+    private final Main main;
+    private final long timeout;
+
+    /**
+     * creates a new EventReplay
+     * @param main the instance of Main to replay against
+     * @param timeout the time to wait for the last Events to finish in milliseconds
+     */
+    public EventReplay(Main main, long timeout) {
+        this.main = main;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("usage: EventReplay <recording> [speed|max]");
+            System.exit(1);
+        }
+        double speed = 1;
+        if (args.length > 1)
+            speed = args[1].equalsIgnoreCase("max") ? Double.POSITIVE_INFINITY : Double.parseDouble(args[1]);
+        Main main = new Main(new ArrayList<>(), false, true);
+        Report report = new EventReplay(main, 60000).replay(new File(args[0]), speed);
+        System.out.println(report);
+        System.exit(report.isTimedOut() ? 2 : 0);
+    }
+
+    /**
+     * replays the recording
+     * @param recording the recorded file
+     * @param speed the factor the recorded timing gets divided by, {@link Double#POSITIVE_INFINITY} fires all Events
+     *              as fast as possible
+     * @return the report
+     * @throws IOException if unable to read the recording
+     * @throws InterruptedException if interrupted while replaying
+     */
+    public Report replay(File recording, double speed) throws IOException, InterruptedException {
+        List<EventRecorder.Entry> entries = EventRecorder.read(recording);
+        EventDistributor eventDistributor = main.getEventDistributor();
+        Map<String, Identification> sources = new HashMap<>();
+        Map<String, EventCallable> publishers = new HashMap<>();
+        Set<String> descriptors = new HashSet<>();
+        for (EventRecorder.Entry entry : entries) {
+            EventRecord record = entry.getRecord();
+            if (!publishers.containsKey(record.getSourceID())) {
+                Identification source = getStub(sources, record.getSourceID());
+                Optional<EventCallable> publisher = eventDistributor.registerEventPublisher(source);
+                if (!publisher.isPresent())
+                    throw new IllegalStateException("unable to register a publisher for " + record.getSourceID());
+                publishers.put(record.getSourceID(), publisher.get());
+            }
+            for (EventRecorder.ResourceEntry resource : entry.getResources()) {
+                if (resource.getProviderID() != null)
+                    getStub(sources, resource.getProviderID());
+            }
+            descriptors.add(record.getType());
+            descriptors.addAll(record.getDescriptors());
+        }
+        EventListenerModel stubListener = event -> {};
+        EventListenerModel stubFinishedListener = event -> {};
+        eventDistributor.registerEventListener(new ArrayList<>(descriptors), stubListener);
+        eventDistributor.registerEventFinishedListener(new ArrayList<>(descriptors), stubFinishedListener);
+
+        CountDownLatch finished = new CountDownLatch(entries.size());
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        int rejected = 0;
+        long start = System.nanoTime();
+        try {
+            for (EventRecorder.Entry entry : entries) {
+                if (!Double.isInfinite(speed)) {
+                    long wait = start + (long) (entry.getTime() / speed) - System.nanoTime();
+                    if (wait > 0)
+                        LockSupport.parkNanos(wait);
+                    if (Thread.interrupted())
+                        throw new InterruptedException();
+                }
+                EventMinimalImpl event = createEvent(entry, sources, finished, latencies);
+                try {
+                    publishers.get(entry.getRecord().getSourceID()).fire(event);
+                } catch (EventQueueFullException | MultipleEventsException e) {
+                    rejected++;
+                    finished.countDown();
+                }
+            }
+            boolean timedOut = !finished.await(timeout, TimeUnit.MILLISECONDS);
+            long duration = System.nanoTime() - start;
+            return new Report(entries.size(), rejected, duration, new ArrayList<>(latencies),
+                    timedOut ? finished.getCount() : 0);
+        } finally {
+            eventDistributor.unregisterEventListener(stubListener);
+            eventDistributor.unregisterEventFinishedListener(stubFinishedListener);
+            publishers.keySet().forEach(id -> eventDistributor.unregisterEventPublisher(sources.get(id)));
+        }
+    }
+
+    /**
+     * returns the Identification of the stub with the ID, registering the stub if necessary
+     */
+    private Identification getStub(Map<String, Identification> sources, String id) {
+        return sources.computeIfAbsent(id, key -> {
+            Identifiable stub = () -> key;
+            main.getIdentificationManager().registerIdentification(stub);
+            return main.getIdentificationManager().getIdentification(stub)
+                    .orElseThrow(() -> new IllegalStateException("unable to register the stub " + key));
+        });
+    }
+
+    /**
+     * creates the Event with a lifecycle-callback measuring the latencies
+     */
+    private EventMinimalImpl createEvent(EventRecorder.Entry entry, Map<String, Identification> sources,
+                                         CountDownLatch finished, Queue<long[]> latencies) {
+        EventRecord record = entry.getRecord();
+        long fired = System.nanoTime();
+        //the latency of every stage, -1 if not reached
+        long[] latency = new long[STAGES.length];
+        Arrays.fill(latency, -1);
+        EventMinimalImpl event = new EventMinimalImpl(record.getType(), sources.get(record.getSourceID()),
+                new ArrayList<>(record.getDescriptors()), stage -> {
+                    latency[stage.ordinal()] = System.nanoTime() - fired;
+                    if (stage == EventLifeCycle.ENDED || stage == EventLifeCycle.CANCELED) {
+                        latencies.add(latency);
+                        finished.countDown();
+                    }
+                }, record.getPriority());
+        for (EventRecorder.ResourceEntry resource : entry.getResources()) {
+            Identification provider = resource.getProviderID() != null ? sources.get(resource.getProviderID()) : null;
+            event.addResource(new ResourceMinimalImpl<>(resource.getResourceID(), provider, resource.getValue(), null));
+        }
+        return event;
+    }
+
+    /**
+     * the result of a replay
+     */
+    public static class Report {
+        private final int fired;
+        private final int rejected;
+        private final int completed;
+        private final int canceled;
+        private final long duration;
+        private final long[][] latencies;
+        //the Events which did not finish before the timeout
+        private final long unfinished;
+
+        private Report(int fired, int rejected, long duration, List<long[]> measured, long unfinished) {
+            this.fired = fired;
+            this.rejected = rejected;
+            this.duration = duration;
+            this.unfinished = unfinished;
+            int canceled = 0;
+            latencies = new long[STAGES.length][];
+            for (EventLifeCycle stage : STAGES) {
+                latencies[stage.ordinal()] = measured.stream()
+                        .mapToLong(latency -> latency[stage.ordinal()])
+                        .filter(latency -> latency >= 0)
+                        .sorted()
+                        .toArray();
+            }
+            for (long[] latency : measured) {
+                if (latency[EventLifeCycle.CANCELED.ordinal()] >= 0)
+                    canceled++;
+            }
+            this.canceled = canceled;
+            this.completed = measured.size() - canceled;
+        }
+
+        /**
+         * returns the number of fired Events
+         * @return the number of fired Events
+         */
+        public int getFired() {
+            return fired;
+        }
+
+        /**
+         * returns the number of Events processed until the ENDED stage
+         * @return the number of completed Events
+         */
+        public int getCompleted() {
+            return completed;
+        }
+
+        /**
+         * returns the number of canceled (or dropped) Events
+         * @return the number of canceled Events
+         */
+        public int getCanceled() {
+            return canceled;
+        }
+
+        /**
+         * returns the number of Events rejected by the EventQueue
+         * @return the number of rejected Events
+         */
+        public int getRejected() {
+            return rejected;
+        }
+
+        /**
+         * returns whether the replay timed out before all the Events finished, the duration then includes the whole
+         * timeout and the numbers only cover the Events finished until then
+         * @return true if timed out
+         */
+        public boolean isTimedOut() {
+            return unfinished > 0;
+        }
+
+        /**
+         * returns the number of Events which did not finish before the timeout
+         * @return the number of unfinished Events
+         */
+        public long getUnfinished() {
+            return unfinished;
+        }
+
+        /**
+         * returns the time from the first fired Event until the last Event finished (or the timeout)
+         * @return the duration in nanoseconds
+         */
+        public long getDuration() {
+            return duration;
+        }
+
+        /**
+         * returns the number of completed Events per second
+         * @return the throughput
+         */
+        public double getThroughput() {
+            return duration == 0 ? 0 : completed / (duration / 1e9);
+        }
+
+        /**
+         * returns the percentile of the latency from firing the Event until the stage was reached
+         * @param stage the stage
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency in nanoseconds or -1 if no Event reached the stage
+         */
+        public long getLatency(EventLifeCycle stage, double percentile) {
+            long[] sorted = latencies[stage.ordinal()];
+            if (sorted.length == 0)
+                return -1;
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            if (isTimedOut())
+                builder.append(String.format("TIMED OUT: %d events did not finish, the results are incomplete%n",
+                        unfinished));
+            builder.append(String.format("fired: %d, completed: %d, canceled: %d, rejected: %d%n",
+                    fired, completed, canceled, rejected));
+            builder.append(String.format("duration: %.3f s, throughput: %.1f events/s%n", duration / 1e9,
+                    getThroughput()));
+            builder.append(String.format("%-10s %10s %10s %10s %10s%n", "stage", "p50 ms", "p90 ms", "p99 ms",
+                    "max ms"));
+            for (EventLifeCycle stage : STAGES) {
+                if (latencies[stage.ordinal()].length == 0)
+                    continue;
+                builder.append(String.format("%-10s %10.3f %10.3f %10.3f %10.3f%n", stage,
+                        getLatency(stage, 50) / 1e6, getLatency(stage, 90) / 1e6, getLatency(stage, 99) / 1e6,
+                        getLatency(stage, 100) / 1e6));
+            }
+            return builder.toString();
+        }
+    }
+}
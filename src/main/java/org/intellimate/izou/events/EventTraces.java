@@ -0,0 +1,311 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The causal traces of the Events, recorded by the EventDistributor.
+ * <p>
+ * Every Event gets an id, the Event the EventDistributor was processing on the current thread when it was fired is its
+ * parent (see {@link TraceNode}). The context is passed on to the EventsControllers, the listeners (also through their
+ * mailboxes) and the lifecycle-callbacks, OutputPlugins only if they fire from within
+ * {@link org.intellimate.izou.output.OutputPluginModel#addToEventList(EventModel)}. The last traces are kept as trees,
+ * at most {@value #MAX_NODES} Events per trace, so an endless cascade can not exhaust the memory.
+ * </p>
+ * <p>
+ * To find the cascades amplifying the load, every edge (type of the parent, type and source of the child) is counted
+ * with the processing time of the children (see {@link Cascade}), at most {@value #MAX_CASCADES} edges are recorded.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public class EventTraces {
+    /**
+     * the maximum number of Events recorded in one trace
+     */
+    public static final int MAX_NODES = 1024;
+    private static final int MAX_CASCADES = 256;
+    //the Event processed by the current thread
+    private static final ThreadLocal<TraceNode> CURRENT = new ThreadLocal<>();
+    private final AtomicLong ids = new AtomicLong();
+    //a ring-buffer of the roots of the last traces
+    private final AtomicReferenceArray<TraceNode> traces;
+    private final AtomicLong rootCount = new AtomicLong();
+    private final ConcurrentHashMap<String, Cascade> cascades = new ConcurrentHashMap<>();
+    //the number of completed Events of every type, used to compute the amplification
+    private final ConcurrentHashMap<String, LongAdder> completed = new ConcurrentHashMap<>();
+    private final LongAdder truncated = new LongAdder();
+
+    /**
+     * creates a new EventTraces
+     * @param capacity the number of traces kept
+     */
+    EventTraces(int capacity) {
+        traces = new AtomicReferenceArray<>(Math.max(1, capacity));
+    }
+
+    /**
+     * returns the Event the EventDistributor is processing on the current thread
+     * @return the node of the Event or empty if the current thread is not processing an Event
+     */
+    public static Optional<TraceNode> current() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    /**
+     * returns the node of the Event processed by the current thread
+     * @return the node or null
+     */
+    static TraceNode currentOrNull() {
+        return CURRENT.get();
+    }
+
+    /**
+     * sets the Event processed by the current thread, has to be followed by {@link #exit(TraceNode, TraceNode)}
+     * @param node the node of the Event, null does nothing
+     * @return the node to restore
+     */
+    static TraceNode enter(TraceNode node) {
+        if (node == null)
+            return null;
+        TraceNode previous = CURRENT.get();
+        CURRENT.set(node);
+        return previous;
+    }
+
+    /**
+     * restores the Event processed by the current thread
+     * @param node the node passed to {@link #enter(TraceNode)}
+     * @param previous the node returned by {@link #enter(TraceNode)}
+     */
+    static void exit(TraceNode node, TraceNode previous) {
+        if (node != null)
+            CURRENT.set(previous);
+    }
+
+    /**
+     * creates the node of a fired Event, the child of the Event processed by the current thread
+     * @param event the Event
+     * @return the node
+     */
+    TraceNode fired(EventModel<?> event) {
+        TraceNode parent = CURRENT.get();
+        TraceNode node = new TraceNode(ids.incrementAndGet(), parent, event.getType(),
+                event.getSource() != null ? event.getSource().getID() : null);
+        if (parent == null) {
+            traces.set((int) (rootCount.getAndIncrement() % traces.length()), node);
+        } else if (!parent.addChild(node, MAX_NODES)) {
+            truncated.increment();
+        }
+        return node;
+    }
+
+    /**
+     * records the completed Event
+     * @param node the node of the Event
+     */
+    void completed(TraceNode node) {
+        if (!node.completed(System.nanoTime()))
+            return;
+        count(node.getType());
+        TraceNode parent = node.getParent();
+        if (parent == null)
+            return;
+        String key = parent.getType() + " -> " + node.getType() + " (" + node.getSourceID() + ")";
+        Cascade cascade = cascades.get(key);
+        if (cascade == null) {
+            if (cascades.size() >= MAX_CASCADES)
+                return;
+            cascade = cascades.computeIfAbsent(key,
+                    k -> new Cascade(parent.getType(), node.getType(), node.getSourceID()));
+        }
+        cascade.count.increment();
+        cascade.time.add(node.getProcessingNanos());
+    }
+
+    private void count(String type) {
+        LongAdder count = completed.get(type);
+        if (count == null) {
+            if (completed.size() >= MAX_CASCADES)
+                return;
+            count = completed.computeIfAbsent(type, key -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /**
+     * returns the trace
+     * @param traceId the id of the trace
+     * @return the root of the trace or empty if not kept (anymore)
+     */
+    public Optional<TraceNode> getTrace(long traceId) {
+        for (int i = 0; i < traces.length(); i++) {
+            TraceNode root = traces.get(i);
+            if (root != null && root.getId() == traceId)
+                return Optional.of(root);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * returns the last traces
+     * @return the roots of the traces, the oldest first
+     */
+    public List<TraceNode> getTraces() {
+        List<TraceNode> roots = new ArrayList<>(traces.length());
+        for (int i = 0; i < traces.length(); i++) {
+            TraceNode root = traces.get(i);
+            if (root != null)
+                roots.add(root);
+        }
+        roots.sort(Comparator.comparingLong(TraceNode::getId));
+        return roots;
+    }
+
+    /**
+     * returns all the recorded cascades
+     * @return the cascades, the one with the longest total processing time first
+     */
+    public List<Cascade> getCascades() {
+        List<Cascade> result = new ArrayList<>(cascades.values());
+        result.sort(Comparator.comparingLong((Cascade cascade) -> cascade.time.sum()).reversed());
+        return result;
+    }
+
+    /**
+     * returns the number of Events which were not recorded because their trace was full
+     * @return the number of truncated Events
+     */
+    public long getTruncatedCount() {
+        return truncated.sum();
+    }
+
+    /**
+     * discards all the recorded traces and cascades
+     */
+    public void reset() {
+        for (int i = 0; i < traces.length(); i++) {
+            traces.set(i, null);
+        }
+        cascades.clear();
+        completed.clear();
+    }
+
+    /**
+     * writes the cascades and the last traces (in milliseconds) to the file, replacing its content
+     * @param file the file
+     * @throws IOException if unable to write
+     */
+    public void dump(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs())
+            throw new IOException("unable to create " + parent);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.printf("%-60s %-30s %10s %10s %10s%n", "cascade", "source", "count", "per-parent", "total");
+            for (Cascade cascade : getCascades()) {
+                writer.printf("%-60s %-30s %10d %10.3f %10.3f%n",
+                        cascade.getParentType() + " -> " + cascade.getType(), cascade.getSourceID(), cascade.getCount(),
+                        cascade.getAmplification(), cascade.getTotalTime(TimeUnit.MICROSECONDS) / 1000.0);
+            }
+            for (TraceNode root : getTraces()) {
+                writer.printf("%ntrace %d: %d Events, %.3f ms processing%n", root.getTraceId(),
+                        root.getDescendantCount() + 1, root.getTotalProcessingTime(TimeUnit.MICROSECONDS) / 1000.0);
+                dump(writer, root, root.getFired());
+            }
+        }
+    }
+
+    private void dump(PrintWriter writer, TraceNode node, long origin) {
+        StringBuilder indent = new StringBuilder();
+        for (int i = 0; i <= node.getDepth(); i++) {
+            indent.append("  ");
+        }
+        writer.printf("%s#%d %s (%s) at +%.3f, queue %.3f, processing %.3f%s%n", indent, node.getId(), node.getType(),
+                node.getSourceID(), (node.getFired() - origin) / 1000000.0,
+                node.getQueueTime(TimeUnit.MICROSECONDS) / 1000.0,
+                node.getProcessingTime(TimeUnit.MICROSECONDS) / 1000.0,
+                node.isCanceled() ? ", canceled" : node.isCompleted() ? "" : ", running");
+        for (TraceNode child : node.getChildren()) {
+            dump(writer, child, origin);
+        }
+    }
+
+    /**
+     * the Events of one type and source caused by the Events of another type
+     */
+    @AddonAccessible
+    public final class Cascade {
+        private final String parentType;
+        private final String type;
+        private final String sourceID;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder time = new LongAdder();
+
+        private Cascade(String parentType, String type, String sourceID) {
+            this.parentType = parentType;
+            this.type = type;
+            this.sourceID = sourceID;
+        }
+
+        /**
+         * returns the type of the Events causing the cascade
+         * @return the type of the parents
+         */
+        public String getParentType() {
+            return parentType;
+        }
+
+        /**
+         * returns the type of the caused Events
+         * @return the type
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * returns the ID of the source firing the caused Events
+         * @return the ID of the source
+         */
+        public String getSourceID() {
+            return sourceID;
+        }
+
+        /**
+         * returns the number of caused Events
+         * @return the number of completed Events
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * returns how many Events one Event of the parent type causes on average
+         * @return the number of caused Events per completed parent
+         */
+        public double getAmplification() {
+            LongAdder parents = completed.get(parentType);
+            long parentCount = parents != null ? parents.sum() : 0;
+            return parentCount > 0 ? (double) count.sum() / parentCount : 0;
+        }
+
+        /**
+         * returns the processing time of all the caused Events (not including the Events caused by them)
+         * @param unit the unit of the result
+         * @return the total time
+         */
+        public long getTotalTime(TimeUnit unit) {
+            return unit.convert(time.sum(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
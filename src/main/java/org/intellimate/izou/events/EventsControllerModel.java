@@ -19,4 +19,28 @@ public interface EventsControllerModel extends Identifiable {
      * @return true if events should be dispatched
      */
     boolean controlEventDispatcher(EventModel event);
+
+    /**
+     * returns whether the decision only depends on the type and the descriptors of the Event.
+     * <p>
+     * If true, the decision gets cached for every combination of type and descriptors until the cache is invalidated
+     * with {@link org.intellimate.izou.system.context.EventsDistributor#invalidateVerdicts(EventsControllerModel)}.
+     * </p>
+     * @return true if the decision can be cached, default is false
+     */
+    default boolean isVerdictCacheable() {
+        return false;
+    }
+
+    /**
+     * returns the descriptors the EventsController is interested in.
+     * <p>
+     * The EventsController is only asked for the Events with at least one of the descriptors (or the type), all the
+     * other Events are approved without asking. Return the same (precomputed) instance on every call.
+     * </p>
+     * @return the DescriptorSet or null to be asked for all the Events, default is null
+     */
+    default DescriptorSet getDescriptorFilter() {
+        return null;
+    }
 }
@@ -0,0 +1,160 @@
+package org.intellimate.izou.events;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Notifies the listeners of one Event in parallel and waits until they finished, without producing garbage.
+ * <p>
+ * Every thread processing Events owns one instance and reuses it for every Event: the tasks submitted to the addon
+ * thread-pool are kept and re-bound to the next listener and Event. A listener which did not finish in time keeps its
+ * task, it gets replaced by a new one. The number of running tasks and the generation (the Event) they belong to are
+ * packed into one AtomicLong, so a task finishing too late can not count for the next Event.
+ * </p>
+ * <p>
+ * This class is not thread-safe, only the owning thread may call {@link #notifyAndAwait(EventListenerModel[],
+ * EventModel, long)}.
+ * </p>
+ * @version 1.0
+ */
+class ListenerFanOut {
+    private final EventDistributor eventDistributor;
+    private final Executor executor;
+    private final Thread owner = Thread.currentThread();
+    //the generation in the upper 32 bits, the number of running tasks in the lower 32 bits
+    private final AtomicLong state = new AtomicLong();
+    private Task[] tasks = new Task[0];
+
+    /**
+     * creates a new ListenerFanOut, owned by the current thread
+     * @param eventDistributor the EventDistributor
+     * @param executor the executor running the listeners
+     */
+    ListenerFanOut(EventDistributor eventDistributor, Executor executor) {
+        this.eventDistributor = eventDistributor;
+        this.executor = executor;
+    }
+
+    /**
+     * notifies all the listeners of the Event and waits until they finished or the timeout is reached
+     * @param listeners the listeners
+     * @param event the Event
+     * @param timeout the timeout in milliseconds
+     * @return true if all the listeners finished in time
+     */
+    boolean notifyAndAwait(EventListenerModel[] listeners, EventModel<?> event, long timeout) {
+        if (listeners.length == 0)
+            return true;
+        if (tasks.length < listeners.length) {
+            Task[] grown = new Task[listeners.length];
+            System.arraycopy(tasks, 0, grown, 0, tasks.length);
+            for (int i = tasks.length; i < grown.length; i++) {
+                grown[i] = new Task();
+            }
+            tasks = grown;
+        }
+        //the listeners run in the context of the Event
+        TraceNode trace = EventTraces.currentOrNull();
+        int generation = (int) (state.get() >>> 32) + 1;
+        state.set(((long) generation << 32) | listeners.length);
+        for (int i = 0; i < listeners.length; i++) {
+            tasks[i].bind(listeners[i], event, trace, generation);
+            try {
+                executor.execute(tasks[i]);
+            } catch (RuntimeException e) {
+                tasks[i].finish(generation);
+                eventDistributor.error("unable to notify " + listeners[i], e);
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        while ((int) state.get() > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+                break;
+            LockSupport.parkNanos(this, remaining);
+            if (Thread.interrupted()) {
+                eventDistributor.error("interrupted", new InterruptedException());
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if ((int) state.get() == 0)
+            return true;
+        //starts the next generation, so the late tasks are ignored
+        state.set((long) (generation + 1) << 32);
+        for (int i = 0; i < listeners.length; i++) {
+            if (tasks[i].running) {
+                eventDistributor.error(listeners[i] + " timed out", new Exception(listeners[i] + " timed out"));
+                tasks[i] = new Task();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * counts down the running tasks if the task belongs to the current generation
+     * @param generation the generation of the task
+     */
+    private void finished(int generation) {
+        while (true) {
+            long current = state.get();
+            if ((int) (current >>> 32) != generation || (int) current == 0)
+                return;
+            if (state.compareAndSet(current, current - 1)) {
+                if ((int) current == 1)
+                    LockSupport.unpark(owner);
+                return;
+            }
+        }
+    }
+
+    /**
+     * a reusable task notifying one listener
+     */
+    private final class Task implements Runnable {
+        private EventListenerModel listener;
+        private EventModel<?> event;
+        private TraceNode trace;
+        private int generation;
+        private volatile boolean running;
+
+        private void bind(EventListenerModel listener, EventModel<?> event, TraceNode trace, int generation) {
+            //a PooledEvent is retained until the listener finished, it may outlive the timeout
+            PooledEvent.retain(event);
+            this.listener = listener;
+            this.event = event;
+            this.trace = trace;
+            this.generation = generation;
+            running = true;
+        }
+
+        private void finish(int generation) {
+            EventModel<?> event = this.event;
+            listener = null;
+            this.event = null;
+            trace = null;
+            running = false;
+            PooledEvent.release(event);
+            finished(generation);
+        }
+
+        @Override
+        public void run() {
+            //read once, the task may get re-bound as soon as it is not running anymore
+            EventListenerModel listener = this.listener;
+            TraceNode trace = this.trace;
+            int generation = this.generation;
+            TraceNode previous = EventTraces.enter(trace);
+            try {
+                listener.eventFired(event);
+            } catch (RuntimeException | LinkageError e) {
+                eventDistributor.getMain().getThreadPoolManager().handleThrowable(e, listener);
+            } finally {
+                EventTraces.exit(trace, previous);
+                finish(generation);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.intellimate.izou.events;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The bounded mailbox of one EventListener.
+ * <p>
+ * The EventDistributor only puts the Events into the mailbox and moves on. The mailbox delivers them in order, one
+ * after another, on the addon thread-pool (at most one task per mailbox, like an actor), so a slow listener only delays
+ * itself. When the mailbox is full, the {@link OverflowPolicy} decides: BLOCK waits up to the timeout for space and then
+ * drops the new Event, DROP_NEWEST drops the new Event, DROP_OLDEST drops the oldest waiting Event. REJECT is not
+ * supported, nobody could be told about the rejection. While BLOCK waits, the lane delivering the Event stalls, so every
+ * full mailbox delays all the Events of the partition by up to the timeout.
+ * </p>
+ * @version 1.0
+ */
+class ListenerMailbox implements Runnable {
+    //the maximum number of Events delivered by one task, so one listener can not occupy a thread forever
+    private static final int BATCH = 64;
+    private final EventDistributor eventDistributor;
+    private final EventListenerModel listener;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeout;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    //a ring-buffer of the waiting Events, the time they were put and their trace, guarded by lock
+    private final EventModel<?>[] events;
+    private final long[] enqueued;
+    private final TraceNode[] traces;
+    private int head = 0;
+    private int size = 0;
+    //whether a task is submitted or running, guarded by lock
+    private boolean scheduled = false;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    //the time in nanoseconds the last delivered Event waited
+    private volatile long lastLag = 0;
+
+    /**
+     * creates a new mailbox
+     * @param eventDistributor the EventDistributor
+     * @param listener the listener to deliver to
+     * @param capacity the maximum number of waiting Events
+     * @param overflowPolicy what to do if the mailbox is full, REJECT is treated like DROP_NEWEST
+     * @param blockTimeout the time in milliseconds BLOCK waits for space
+     */
+    ListenerMailbox(EventDistributor eventDistributor, EventListenerModel listener, int capacity,
+                    OverflowPolicy overflowPolicy, long blockTimeout) {
+        this.eventDistributor = eventDistributor;
+        this.listener = listener;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeout = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockTimeout));
+        events = new EventModel<?>[Math.max(1, capacity)];
+        enqueued = new long[events.length];
+        traces = new TraceNode[events.length];
+    }
+
+    /**
+     * puts the Event into the mailbox, applying the OverflowPolicy if it is full
+     * @param event the Event
+     * @return true if the Event was put into the mailbox, false if it was dropped
+     * @throws InterruptedException if interrupted while waiting for space
+     */
+    boolean offer(EventModel<?> event) throws InterruptedException {
+        boolean schedule;
+        lock.lock();
+        try {
+            long remaining = blockTimeout;
+            while (size == events.length) {
+                if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+                    PooledEvent.release(poll());
+                    dropped.incrementAndGet();
+                } else if (overflowPolicy == OverflowPolicy.BLOCK && remaining > 0) {
+                    remaining = notFull.awaitNanos(remaining);
+                } else {
+                    dropped.incrementAndGet();
+                    if (eventDistributor.isDebugEnabled())
+                        eventDistributor.debug("mailbox of " + listener + " full, dropping " + event);
+                    return false;
+                }
+            }
+            int tail = (head + size) % events.length;
+            //a PooledEvent is retained while waiting in the mailbox
+            PooledEvent.retain(event);
+            events[tail] = event;
+            enqueued[tail] = System.nanoTime();
+            traces[tail] = EventTraces.currentOrNull();
+            size++;
+            schedule = !scheduled;
+            scheduled = true;
+        } finally {
+            lock.unlock();
+        }
+        if (schedule)
+            eventDistributor.getMain().getThreadPoolManager().getAddOnsThreadPool().execute(this);
+        return true;
+    }
+
+    /**
+     * removes the first Event, must be called while holding the lock
+     * @return the first Event
+     */
+    private EventModel<?> poll() {
+        EventModel<?> event = events[head];
+        events[head] = null;
+        traces[head] = null;
+        head = (head + 1) % events.length;
+        size--;
+        notFull.signal();
+        return event;
+    }
+
+    @Override
+    public void run() {
+        for (int i = 0; i < BATCH; i++) {
+            EventModel<?> event;
+            TraceNode trace;
+            lock.lock();
+            try {
+                if (size == 0) {
+                    scheduled = false;
+                    return;
+                }
+                trace = traces[head];
+                //only the delivered Events count, not the dropped ones
+                lastLag = System.nanoTime() - enqueued[head];
+                event = poll();
+            } finally {
+                lock.unlock();
+            }
+            TraceNode previous = EventTraces.enter(trace);
+            try {
+                listener.eventFired(event);
+            } catch (RuntimeException | LinkageError e) {
+                eventDistributor.getMain().getThreadPoolManager().handleThrowable(e, listener);
+            } finally {
+                EventTraces.exit(trace, previous);
+                PooledEvent.release(event);
+            }
+            delivered.incrementAndGet();
+        }
+        //give the other tasks a chance, still scheduled
+        eventDistributor.getMain().getThreadPoolManager().getAddOnsThreadPool().execute(this);
+    }
+
+    /**
+     * returns the number of waiting Events
+     * @return the number of waiting Events
+     */
+    int getBacklog() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * returns how long the listener lags behind: the time the oldest waiting Event waits, or, if none is waiting, the
+     * time the last delivered Event waited
+     * @return the lag in milliseconds
+     */
+    long getLag() {
+        lock.lock();
+        try {
+            long lag = size > 0 ? System.nanoTime() - enqueued[head] : lastLag;
+            return TimeUnit.NANOSECONDS.toMillis(lag);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * returns the number of Events delivered to the listener
+     * @return the number of delivered Events
+     */
+    long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * returns the number of Events dropped because the mailbox was full
+     * @return the number of dropped Events
+     */
+    long getDroppedCount() {
+        return dropped.get();
+    }
+}
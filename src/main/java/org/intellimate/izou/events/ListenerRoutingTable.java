@@ -0,0 +1,275 @@
+package org.intellimate.izou.events;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable routing table which maps the descriptors to the registered EventListeners.
+ * <p>
+ * Every registration or removal builds a new table (copy-on-write), so looking up the listeners of an Event is a
+ * lock-free read. The table is indexed by the integers of the {@link DescriptorRegistry}, the de-duplicated listeners
+ * are cached for every {@link DescriptorSet} seen.
+ * </p>
+ * <p>
+ * Ids containing a wildcard are registered as patterns (see {@link DescriptorTrie}), they are matched against every
+ * descriptor of the Events not yet cached. Descriptors which are not interned because the registry is full are routed
+ * by their String.
+ * </p>
+ * @version 1.0
+ */
+class ListenerRoutingTable {
+    private static final EventListenerModel[] EMPTY = new EventListenerModel[0];
+    //upper bound for the cached descriptor-combinations, protects against events with random descriptors
+    private static final int MAX_CACHED = 4096;
+    private volatile Routes routes = new Routes(new EventListenerModel[0][], new HashMap<>(), new HashMap<>());
+
+    /**
+     * registers the listener for all the ids individually.
+     * It will ignore if the listener is already registered for an id.
+     * @param ids this can be type, or descriptors etc. or patterns containing wildcards
+     * @param eventListener the listener to register
+     * @throws IllegalArgumentException if a pattern is invalid
+     */
+    synchronized void register(List<String> ids, EventListenerModel eventListener) {
+        List<String> descriptors = new ArrayList<>(ids.size());
+        HashMap<String, EventListenerModel[]> patterns = null;
+        for (String id : ids) {
+            if (!DescriptorTrie.isPattern(id)) {
+                descriptors.add(id);
+                continue;
+            }
+            if (patterns == null)
+                patterns = new HashMap<>(routes.byPattern);
+            add(patterns, id, eventListener);
+        }
+        if (patterns != null)
+            routes = new Routes(routes.byDescriptor, patterns, routes.byName);
+        register(DescriptorSet.of(descriptors), eventListener);
+    }
+
+    /**
+     * registers the listener for all the descriptors individually.
+     * It will ignore if the listener is already registered for a descriptor.
+     * @param descriptors the descriptors (and types)
+     * @param eventListener the listener to register
+     */
+    synchronized void register(DescriptorSet descriptors, EventListenerModel eventListener) {
+        EventListenerModel[][] copy = routes.copy(DescriptorRegistry.size());
+        boolean changed = false;
+        for (int id = descriptors.next(0); id >= 0; id = descriptors.next(id + 1)) {
+            EventListenerModel[] current = copy[id] != null ? copy[id] : EMPTY;
+            if (indexOf(current, eventListener) != -1)
+                continue;
+            EventListenerModel[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = eventListener;
+            copy[id] = updated;
+            changed = true;
+        }
+        HashMap<String, EventListenerModel[]> names = new HashMap<>(routes.byName);
+        for (String name : descriptors.getNames()) {
+            changed |= add(names, name, eventListener);
+        }
+        if (changed)
+            routes = new Routes(copy, routes.byPattern, names);
+    }
+
+    /**
+     * unregisters the listener for all the ids individually.
+     * It will ignore if the listener is not registered for an id.
+     * @param ids this can be type, or descriptors etc.
+     * @param eventListener the listener to unregister
+     */
+    synchronized void unregister(List<String> ids, EventListenerModel eventListener) {
+        EventListenerModel[][] copy = routes.copy(0);
+        HashMap<String, EventListenerModel[]> patterns = new HashMap<>(routes.byPattern);
+        HashMap<String, EventListenerModel[]> names = new HashMap<>(routes.byName);
+        boolean changed = false;
+        for (String descriptor : ids) {
+            if (DescriptorTrie.isPattern(descriptor)) {
+                changed |= remove(patterns, descriptor, eventListener);
+                continue;
+            }
+            int id = DescriptorRegistry.lookup(descriptor);
+            if (id >= 0 && id < copy.length) {
+                changed |= remove(copy, id, eventListener);
+            } else if (id < 0) {
+                changed |= remove(names, descriptor, eventListener);
+            }
+        }
+        if (changed)
+            routes = new Routes(copy, patterns, names);
+    }
+
+    /**
+     * unregisters the listener for all the registered ids.
+     * @param eventListener the listener to unregister
+     */
+    synchronized void unregister(EventListenerModel eventListener) {
+        EventListenerModel[][] copy = routes.copy(0);
+        HashMap<String, EventListenerModel[]> patterns = new HashMap<>(routes.byPattern);
+        HashMap<String, EventListenerModel[]> names = new HashMap<>(routes.byName);
+        boolean changed = false;
+        for (int id = 0; id < copy.length; id++) {
+            changed |= remove(copy, id, eventListener);
+        }
+        for (String pattern : routes.byPattern.keySet()) {
+            changed |= remove(patterns, pattern, eventListener);
+        }
+        for (String name : routes.byName.keySet()) {
+            changed |= remove(names, name, eventListener);
+        }
+        if (changed)
+            routes = new Routes(copy, patterns, names);
+    }
+
+    /**
+     * returns all the listeners registered for at least one of the descriptors or the type of the event.
+     * <p>The returned array must not be modified!</p>
+     * @param event the event
+     * @return an array of distinct listeners
+     */
+    EventListenerModel[] getListeners(EventModel<?> event) {
+        return routes.getListeners(event.getDescriptorSet());
+    }
+
+    /**
+     * removes the listener from the id
+     * @param copy the table to modify
+     * @param id the integer of the descriptor
+     * @param eventListener the listener to remove
+     * @return true if the table was changed
+     */
+    private boolean remove(EventListenerModel[][] copy, int id, EventListenerModel eventListener) {
+        EventListenerModel[] current = copy[id];
+        if (current == null)
+            return false;
+        int index = indexOf(current, eventListener);
+        if (index == -1)
+            return false;
+        if (current.length == 1) {
+            copy[id] = null;
+        } else {
+            EventListenerModel[] updated = new EventListenerModel[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            copy[id] = updated;
+        }
+        return true;
+    }
+
+    /**
+     * adds the listener to the pattern or the descriptor which is not interned
+     * @param table the patterns or descriptors to modify
+     * @param key the pattern or the descriptor
+     * @param eventListener the listener to add
+     * @return true if the table was changed
+     */
+    private boolean add(HashMap<String, EventListenerModel[]> table, String key, EventListenerModel eventListener) {
+        EventListenerModel[] current = table.getOrDefault(key, EMPTY);
+        if (indexOf(current, eventListener) != -1)
+            return false;
+        EventListenerModel[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = eventListener;
+        table.put(key, updated);
+        return true;
+    }
+
+    /**
+     * removes the listener from the pattern or the descriptor which is not interned
+     * @param table the patterns or descriptors to modify
+     * @param key the pattern or the descriptor
+     * @param eventListener the listener to remove
+     * @return true if the table was changed
+     */
+    private boolean remove(HashMap<String, EventListenerModel[]> table, String key, EventListenerModel eventListener) {
+        EventListenerModel[] current = table.get(key);
+        if (current == null)
+            return false;
+        int index = indexOf(current, eventListener);
+        if (index == -1)
+            return false;
+        if (current.length == 1) {
+            table.remove(key);
+        } else {
+            EventListenerModel[] updated = new EventListenerModel[current.length - 1];
+            System.arraycopy(current, 0, updated, 0, index);
+            System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+            table.put(key, updated);
+        }
+        return true;
+    }
+
+    private static int indexOf(EventListenerModel[] listeners, EventListenerModel eventListener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(eventListener))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * one immutable version of the routing table
+     */
+    private static final class Routes {
+        //indexed by the integer of the descriptor, null if no listener is registered
+        private final EventListenerModel[][] byDescriptor;
+        private final Map<String, EventListenerModel[]> byPattern;
+        //the descriptors which are not interned, because the DescriptorRegistry is full
+        private final Map<String, EventListenerModel[]> byName;
+        private final DescriptorTrie<EventListenerModel[]> patterns = new DescriptorTrie<>();
+        private final ConcurrentHashMap<DescriptorSet, EventListenerModel[]> cache = new ConcurrentHashMap<>();
+
+        private Routes(EventListenerModel[][] byDescriptor, Map<String, EventListenerModel[]> byPattern,
+                       Map<String, EventListenerModel[]> byName) {
+            this.byDescriptor = byDescriptor;
+            this.byPattern = byPattern;
+            this.byName = byName;
+            byPattern.forEach(patterns::put);
+        }
+
+        /**
+         * copies the table
+         * @param minLength the minimum length of the copy
+         * @return the copy
+         */
+        private EventListenerModel[][] copy(int minLength) {
+            return Arrays.copyOf(byDescriptor, Math.max(byDescriptor.length, minLength));
+        }
+
+        private EventListenerModel[] getListeners(DescriptorSet descriptors) {
+            EventListenerModel[] cached = cache.get(descriptors);
+            if (cached != null)
+                return cached;
+            EventListenerModel[] result = resolve(descriptors);
+            if (cache.size() < MAX_CACHED)
+                cache.putIfAbsent(descriptors, result);
+            return result;
+        }
+
+        private EventListenerModel[] resolve(DescriptorSet descriptors) {
+            List<EventListenerModel[]> matched = new ArrayList<>();
+            for (int id = descriptors.next(0); id >= 0; id = descriptors.next(id + 1)) {
+                if (id < byDescriptor.length && byDescriptor[id] != null)
+                    matched.add(byDescriptor[id]);
+                if (patterns.size() > 0)
+                    patterns.match(DescriptorRegistry.getDescriptor(id), matched::add);
+            }
+            for (String name : descriptors.getNames()) {
+                EventListenerModel[] listeners = byName.get(name);
+                if (listeners != null)
+                    matched.add(listeners);
+                if (patterns.size() > 0)
+                    patterns.match(name, matched::add);
+            }
+            if (matched.isEmpty())
+                return EMPTY;
+            if (matched.size() == 1)
+                return matched.get(0);
+            LinkedHashSet<EventListenerModel> merged = new LinkedHashSet<>();
+            for (EventListenerModel[] listeners : matched) {
+                merged.addAll(Arrays.asList(listeners));
+            }
+            return merged.toArray(new EventListenerModel[merged.size()]);
+        }
+    }
+}
@@ -7,21 +7,21 @@ import org.intellimate.izou.identification.IdentificationManagerM;
 import org.intellimate.izou.identification.IllegalIDException;
 import org.intellimate.izou.main.Main;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * This class is used to manage local events.
+ * <p>
+ * The Events are passed directly to the EventDistributor, so any number of AddOns can fire Events at the same time.
+ * If the EventQueue of the EventDistributor is full, its OverflowPolicy applies to the caller.
+ * </p>
  */
-public class LocalEventManager extends IzouModule implements Runnable {
+public class LocalEventManager extends IzouModule {
     //here are all the Instances which fire events stored
     private final ConcurrentHashMap<Identification, EventCaller> callers = new ConcurrentHashMap<>();
-    //the queue where all the Events are stored
-    final BlockingQueue<EventModel> events = new LinkedBlockingQueue<>(1);
-    //if false, run() will stop
-    private boolean stop = false;
     private final EventCallable eventCallable;
 
     public LocalEventManager(Main main) {
@@ -56,12 +56,10 @@ public class LocalEventManager extends IzouModule implements Runnable {
      * @return an Optional, empty if already registered
      * @throws IllegalIDException not yet implemented
      */
-    @SuppressWarnings({"SynchronizationOnLocalVariableOrMethodParameter"})
     public Optional<EventCallable> registerCaller(Identification identification) throws IllegalIDException {
-        if(identification == null ||
-            callers.containsKey(identification)) return Optional.empty();
-        EventCaller eventCaller = new EventCaller(events);
-        callers.put(identification, eventCaller);
+        if(identification == null) return Optional.empty();
+        EventCaller eventCaller = new EventCaller();
+        if (callers.putIfAbsent(identification, eventCaller) != null) return Optional.empty();
         return Optional.of(eventCaller);
     }
 
@@ -72,11 +70,10 @@ public class LocalEventManager extends IzouModule implements Runnable {
      *
      * @param identification the Identification of the the instance
      */
-    @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
     public void unregisterCaller(Identification identification) {
-        if(!callers.containsKey(identification)) return;
-        callers.get(identification).localEvents = null;
-        callers.remove(identification);
+        EventCaller eventCaller = callers.remove(identification);
+        if (eventCaller != null)
+            eventCaller.registered = false;
     }
 
     /**
@@ -84,49 +81,49 @@ public class LocalEventManager extends IzouModule implements Runnable {
      *
      * @param event the fired Event
      * @throws IllegalIDException not yet implemented
-     * @throws org.intellimate.izou.events.MultipleEventsException if there is currently another event getting processed
+     * @throws org.intellimate.izou.events.MultipleEventsException not thrown anymore, kept for compatibility
+     * @throws EventQueueFullException if the Event got rejected because the EventQueue is exhausted
      */
     public void fireEvent(EventModel event) throws IllegalIDException, org.intellimate.izou.events.MultipleEventsException {
-        if(events == null) return;
-        if(events.isEmpty()) {
-            events.add(event);
-        } else {
-            throw new org.intellimate.izou.events.MultipleEventsException();
-        }
+        if (!isValid(event)) return;
+        eventCallable.fire(event);
     }
 
-    @Override
-    public void run() {
-        stop = false;
-        while (!stop) {
-            EventModel event;
-            try {
-                event = events.take();
-                if (!event.getSource().isCreatedFromInstance()) {
-                    error("event: " + event + "has invalid source");
-                    continue;
-                }
-                try {
-                    eventCallable.fire(event);
-                } catch (org.intellimate.izou.events.MultipleEventsException e) {
-                    log.error("unable to fire Event", e);
-                }
-            } catch (InterruptedException e) {
-                log.warn(e);
-            }
+    /**
+     * This method fires multiple Events at once, they are passed to the EventDistributor in one operation.
+     *
+     * @param events the fired Events
+     * @throws IllegalIDException not yet implemented
+     * @throws EventQueueFullException if an Event got rejected because the EventQueue is exhausted
+     */
+    @SuppressWarnings("rawtypes")
+    public void fireEvents(List<? extends EventModel> events) throws IllegalIDException {
+        List<EventModel<?>> valid = new ArrayList<>(events.size());
+        for (EventModel<?> event : events) {
+            if (isValid(event))
+                valid.add(event);
+        }
+        if (valid.isEmpty()) return;
+        try {
+            eventCallable.fireEvents(valid);
+        } catch (org.intellimate.izou.events.MultipleEventsException e) {
+            //the EventPublisher of the EventDistributor never throws
+            log.error("unable to fire Events", e);
         }
     }
 
     /**
-     * Should stop the EventManager.
-     *
-     * The method run() is a while-loop that repeats itself as long as a variable isn't true. This sets the variable true
-     * but does NOT interrupt the execution! If its not processing, it is waiting for an event, so this Thread still may
-     * not stop without interruption.
+     * checks whether the Event can be fired
+     * @param event the Event to check
+     * @return true if valid
      */
-    @SuppressWarnings("UnusedDeclaration")
-    public void stop() {
-        stop = true;
+    private boolean isValid(EventModel<?> event) {
+        if (event == null) return false;
+        if (event.getSource() == null || !event.getSource().isCreatedFromInstance()) {
+            error("event: " + event + "has invalid source");
+            return false;
+        }
+        return true;
     }
 
     /**
@@ -137,24 +134,47 @@ public class LocalEventManager extends IzouModule implements Runnable {
      */
     @SuppressWarnings("SameParameterValue")
     public final class EventCaller implements EventCallable {
-        private BlockingQueue<EventModel> localEvents;
+        private volatile boolean registered = true;
         //private, so that this class can only constructed by EventManager
-        private EventCaller(BlockingQueue<EventModel> events) {
-            this.localEvents = events;
+        private EventCaller() {
         }
 
         /**
          * This method is used to fire the event.
-         *
-         * @throws org.intellimate.izou.events.MultipleEventsException an Exception will be thrown if there are currently other events fired
+         * <p>
+         * It can be called from multiple threads at the same time, the Events are ignored after the caller got
+         * unregistered.
+         * </p>
+         * @throws org.intellimate.izou.events.MultipleEventsException not thrown anymore, kept for compatibility
+         * @throws EventQueueFullException if the Event got rejected because the EventQueue is exhausted
          */
         public void fire(EventModel event) throws org.intellimate.izou.events.MultipleEventsException {
-            if(events.isEmpty()) {
-                localEvents.add(event);
-            } else {
-                throw new org.intellimate.izou.events.MultipleEventsException();
+            if (!registered || !isValid(event)) return;
+            eventCallable.fire(event);
+        }
+
+        /**
+         * This method is used to fire multiple Events at once, they are passed to the EventDistributor in one
+         * operation.
+         *
+         * @param events the Events to fire
+         * @throws EventQueueFullException if an Event got rejected because the EventQueue is exhausted
+         */
+        @Override
+        @SuppressWarnings("rawtypes")
+        public void fireEvents(List<? extends EventModel> events) {
+            if (!registered) return;
+            try {
+                LocalEventManager.this.fireEvents(events);
+            } catch (IllegalIDException e) {
+                log.error("unable to fire Events", e);
             }
         }
+
+        @Override
+        public boolean isObserved(EventModel<?> event) {
+            return eventCallable == null || eventCallable.isObserved(event);
+        }
     }
 
     /**
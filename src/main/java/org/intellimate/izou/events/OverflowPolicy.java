@@ -0,0 +1,44 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+/**
+ * This enum contains the different ways a bounded queue of Events can react when it is full.
+ * @version 1.0
+ */
+@AddonAccessible
+public enum OverflowPolicy {
+    /**
+     * the caller blocks until there is space available.
+     */
+    BLOCK,
+    /**
+     * the new Event gets rejected with an {@link EventQueueFullException}.
+     */
+    REJECT,
+    /**
+     * the oldest waiting Event gets dropped to make space for the new Event. The EventQueue never drops an Event with
+     * a higher priority than the new one, instead the new Event gets dropped.
+     */
+    DROP_OLDEST,
+    /**
+     * the new Event gets dropped.
+     */
+    DROP_NEWEST;
+
+    /**
+     * parses the policy from the value of a property, e.g. drop-oldest.
+     * @param value the value, may be null
+     * @param defaultPolicy the policy to return if the value is null or unknown
+     * @return the parsed policy
+     */
+    public static OverflowPolicy parse(String value, OverflowPolicy defaultPolicy) {
+        if (value == null)
+            return defaultPolicy;
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return defaultPolicy;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.resource.ListResourceMinimalImpl;
+import org.intellimate.izou.resource.ListResourceProvider;
+import org.intellimate.izou.resource.ResourceModel;
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * An Event which is recycled by its {@link EventPool} when the last reference was released.
+ * <p>
+ * A PooledEvent is acquired from the EventPool with one reference, owned by the caller. Firing the Event passes this
+ * reference to the EventDistributor, which holds additional references as long as the listeners, the mailboxes, the
+ * OutputPlugins and the lifecycle-callbacks use the Event and releases its reference when the Event finished
+ * processing (or was dropped). Whoever keeps the Event longer (e.g. a listener storing it) has to call
+ * {@link #retain()} and later {@link #release()}, using the Event after releasing the last reference is a bug.
+ * </p>
+ * <p>
+ * PooledEvents are only equal to themselves (so they are never conflated). The descriptors of the last use are kept,
+ * so an Event acquired again with the same type and descriptors does not allocate.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public final class PooledEvent implements EventModel<PooledEvent> {
+    private static final Consumer<EventLifeCycle> NO_CALLBACK = eventLifeCycle -> {};
+    private static final EventBehaviourControllerModel BEHAVIOUR_CONTROLLER = identifications -> {
+        HashMap<Integer, List<Identification>> hashMap = new HashMap<>();
+        hashMap.put(0, identifications);
+        return hashMap;
+    };
+    private final EventPool pool;
+    private final AtomicInteger references = new AtomicInteger();
+    private final ListResourceMinimalImpl listResourceContainer = new ListResourceMinimalImpl();
+    private String type;
+    private Identification source;
+    private List<String> descriptors = Collections.emptyList();
+    //the descriptors and the type
+    private List<String> allInformations = Collections.emptyList();
+    private DescriptorSet descriptorSet = DescriptorSet.EMPTY;
+    private Consumer<EventLifeCycle> callback = NO_CALLBACK;
+    private EventPriority priority = EventPriority.NORMAL;
+    private long timeToLive;
+    //tracks the Event while acquired if the leak-detection is enabled, null otherwise
+    EventPool.LeakTracker leakTracker;
+
+    PooledEvent(EventPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * initializes the recycled Event
+     * @param type the type
+     * @param source the source
+     * @param descriptors the descriptors
+     * @param callback the lifecycle-callback or null
+     * @param priority the priority or null for NORMAL
+     * @param timeToLive the time to live in milliseconds, 0 to use the default
+     */
+    void init(String type, Identification source, List<String> descriptors, Consumer<EventLifeCycle> callback,
+              EventPriority priority, long timeToLive) {
+        List<String> newDescriptors = descriptors != null ? descriptors : Collections.emptyList();
+        if (!Objects.equals(this.type, type) || !this.descriptors.equals(newDescriptors)) {
+            String[] informations = new String[newDescriptors.size() + 1];
+            newDescriptors.toArray(informations);
+            informations[newDescriptors.size()] = type;
+            allInformations = Collections.unmodifiableList(Arrays.asList(informations));
+            this.descriptors = allInformations.subList(0, newDescriptors.size());
+            descriptorSet = DescriptorSet.of(allInformations);
+        }
+        this.type = type;
+        this.source = source;
+        this.callback = callback != null ? callback : NO_CALLBACK;
+        this.priority = priority != null ? priority : EventPriority.NORMAL;
+        this.timeToLive = Math.max(0, timeToLive);
+        references.set(1);
+    }
+
+    /**
+     * adds a reference to the Event
+     * @return this Event
+     * @throws IllegalStateException if the Event was already released
+     */
+    public PooledEvent retain() {
+        while (true) {
+            int current = references.get();
+            if (current <= 0)
+                throw new IllegalStateException("the Event " + type + " was already released");
+            if (references.compareAndSet(current, current + 1))
+                return this;
+        }
+    }
+
+    /**
+     * releases a reference, the Event is recycled when the last reference was released
+     * @return true if this was the last reference
+     * @throws IllegalStateException if the Event was already released
+     */
+    public boolean release() {
+        int remaining = references.decrementAndGet();
+        if (remaining < 0) {
+            references.incrementAndGet();
+            throw new IllegalStateException("the Event " + type + " was already released");
+        }
+        if (remaining > 0)
+            return false;
+        listResourceContainer.clear();
+        callback = NO_CALLBACK;
+        source = null;
+        pool.recycle(this);
+        return true;
+    }
+
+    /**
+     * returns the number of references
+     * @return the number of references, 0 if released
+     */
+    public int getReferenceCount() {
+        return references.get();
+    }
+
+    /**
+     * adds a reference if the Event is a PooledEvent
+     * @param event the Event
+     */
+    static void retain(EventModel<?> event) {
+        if (event instanceof PooledEvent)
+            ((PooledEvent) event).retain();
+    }
+
+    /**
+     * releases a reference if the Event is a PooledEvent
+     * @param event the Event
+     */
+    static void release(EventModel<?> event) {
+        if (event instanceof PooledEvent)
+            ((PooledEvent) event).release();
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public Identification getSource() {
+        return source;
+    }
+
+    @Override
+    public ListResourceProvider getListResourceContainer() {
+        return listResourceContainer;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public PooledEvent addResource(ResourceModel resource) {
+        listResourceContainer.addResource(resource);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public PooledEvent addResources(List<ResourceModel> resources) {
+        listResourceContainer.addResource(resources);
+        return this;
+    }
+
+    @Override
+    public List<String> getDescriptors() {
+        return descriptors;
+    }
+
+    @Override
+    public List<String> getAllInformations() {
+        return allInformations;
+    }
+
+    @Override
+    public DescriptorSet getDescriptorSet() {
+        return descriptorSet;
+    }
+
+    @Override
+    public boolean containsDescriptor(String descriptor) {
+        return descriptorSet.contains(descriptor);
+    }
+
+    @Override
+    public EventBehaviourControllerModel getEventBehaviourController() {
+        return BEHAVIOUR_CONTROLLER;
+    }
+
+    @Override
+    public void lifecycleCallback(EventLifeCycle eventLifeCycle) {
+        callback.accept(eventLifeCycle);
+    }
+
+    @Override
+    public boolean hasLifecycleCallback() {
+        return callback != NO_CALLBACK;
+    }
+
+    @Override
+    public EventPriority getPriority() {
+        return priority;
+    }
+
+    @Override
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+
+    @Override
+    public String getID() {
+        return type;
+    }
+
+    @Override
+    public String toString() {
+        return "PooledEvent{type='" + type + "', descriptors=" + descriptors + ", references=" + references.get() + "}";
+    }
+}
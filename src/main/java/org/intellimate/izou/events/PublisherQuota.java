@@ -0,0 +1,69 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks how many Events of one publisher are waiting in the EventQueue and how many are allowed to.
+ * @version 1.0
+ */
+class PublisherQuota {
+    private final Identification identification;
+    //0 means unlimited
+    private volatile int limit;
+    //guarded by the lock of the EventQueue
+    private volatile int queued = 0;
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * creates a new PublisherQuota
+     * @param identification the Identification of the publisher
+     * @param limit the maximum number of waiting Events, 0 means unlimited
+     */
+    PublisherQuota(Identification identification, int limit) {
+        this.identification = identification;
+        this.limit = Math.max(0, limit);
+    }
+
+    Identification getIdentification() {
+        return identification;
+    }
+
+    int getLimit() {
+        return limit;
+    }
+
+    void setLimit(int limit) {
+        this.limit = Math.max(0, limit);
+    }
+
+    int getQueued() {
+        return queued;
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * returns whether the publisher is not allowed to enqueue another Event
+     * @return true if exhausted
+     */
+    boolean isExhausted() {
+        int limit = this.limit;
+        return limit > 0 && queued >= limit;
+    }
+
+    void enqueued() {
+        queued++;
+    }
+
+    void dequeued() {
+        queued--;
+    }
+
+    void dropped() {
+        dropped.incrementAndGet();
+    }
+}
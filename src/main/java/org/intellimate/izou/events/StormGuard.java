@@ -0,0 +1,249 @@
+package org.intellimate.izou.events;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Detects event-storms when the Events are fired and restricts the offending sources.
+ * <p>
+ * The Events fired by every source and of every type are counted per second. A storm is detected when a source or a
+ * type exceeds its rate, or when an Event is too deep in its cascade (see {@link TraceNode#getDepth()}, only if
+ * tracing), e.g. a listener firing an Event which triggers itself. The Event causing the detection is rejected. Only
+ * a source responsible for the storm is restricted for the cooldown: a source exceeding its own rate, or firing an
+ * Event too deep in a cascade it feeds itself (the parent of the Event has the same source). A type exceeding its rate
+ * or a foreign cascade only rejects the Events, so an innocent source firing the Event crossing the line is not
+ * punished. A restricted source is throttled (only a few Events per second are accepted) or quarantined (no Event is
+ * accepted), if it is still storming its cooldown gets extended, afterwards the restriction is lifted automatically.
+ * At most {@value #MAX_TRACKED} sources and types are tracked.
+ * </p>
+ * @version 1.0
+ */
+class StormGuard {
+    private static final int MAX_TRACKED = 1024;
+    private final EventDistributor eventDistributor;
+    private final int sourceRate;
+    private final int typeRate;
+    private final int maxDepth;
+    private final long cooldown;
+    private final boolean quarantine;
+    private final int throttleRate;
+    //returns the time in nanoseconds, System.nanoTime() unless tested
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, Source> sources = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Rate> types = new ConcurrentHashMap<>();
+    private final LongAdder storms = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * creates a new StormGuard
+     * @param eventDistributor the EventDistributor, used for logging
+     * @param sourceRate the maximum number of Events per second of one source, 0 for unlimited
+     * @param typeRate the maximum number of Events per second of one type, 0 for unlimited
+     * @param maxDepth the maximum depth of an Event in its cascade, 0 for unlimited
+     * @param cooldown the time in milliseconds a source stays restricted after its last storm
+     * @param quarantine true to reject all the Events of a restricted source, false to throttle it
+     * @param throttleRate the number of Events per second accepted from a throttled source
+     */
+    StormGuard(EventDistributor eventDistributor, int sourceRate, int typeRate, int maxDepth, long cooldown,
+               boolean quarantine, int throttleRate) {
+        this(eventDistributor, sourceRate, typeRate, maxDepth, cooldown, quarantine, throttleRate, System::nanoTime);
+    }
+
+    /**
+     * creates a new StormGuard with the clock
+     * @param eventDistributor the EventDistributor, used for logging
+     * @param sourceRate the maximum number of Events per second of one source, 0 for unlimited
+     * @param typeRate the maximum number of Events per second of one type, 0 for unlimited
+     * @param maxDepth the maximum depth of an Event in its cascade, 0 for unlimited
+     * @param cooldown the time in milliseconds a source stays restricted after its last storm
+     * @param quarantine true to reject all the Events of a restricted source, false to throttle it
+     * @param throttleRate the number of Events per second accepted from a throttled source
+     * @param clock returns the current time in nanoseconds, like {@link System#nanoTime()}
+     */
+    StormGuard(EventDistributor eventDistributor, int sourceRate, int typeRate, int maxDepth, long cooldown,
+               boolean quarantine, int throttleRate, LongSupplier clock) {
+        this.clock = clock;
+        this.eventDistributor = eventDistributor;
+        this.sourceRate = Math.max(0, sourceRate);
+        this.typeRate = Math.max(0, typeRate);
+        this.maxDepth = Math.max(0, maxDepth);
+        this.cooldown = TimeUnit.MILLISECONDS.toNanos(Math.max(0, cooldown));
+        this.quarantine = quarantine;
+        this.throttleRate = Math.max(0, throttleRate);
+    }
+
+    /**
+     * returns whether the guard checks anything
+     * @return true if enabled
+     */
+    boolean isEnabled() {
+        return sourceRate > 0 || typeRate > 0 || maxDepth > 0;
+    }
+
+    /**
+     * counts the fired Event and decides whether it is accepted
+     * @param event the Event
+     * @param trace the node of the Event or null if not tracing
+     * @return true if accepted, false if the Event should be rejected
+     */
+    boolean admit(EventModel<?> event, TraceNode trace) {
+        long now = clock.getAsLong();
+        String sourceID = event.getSource().getID();
+        Source source = sources.get(sourceID);
+        if (source == null && sources.size() < MAX_TRACKED)
+            source = sources.computeIfAbsent(sourceID, id -> new Source());
+        if (source != null) {
+            long until = source.restrictedUntil.get();
+            if (until != 0 && now - until >= 0) {
+                if (source.restrictedUntil.compareAndSet(until, 0))
+                    eventDistributor.debug("event-storm of " + sourceID + " is over, lifting the restriction");
+            } else if (until != 0) {
+                //still storming, extend the cooldown
+                if (sourceRate > 0 && source.rate.increment(now) > sourceRate)
+                    source.restrictedUntil.set(now + cooldown);
+                if (quarantine || source.throttled.increment(now) > throttleRate) {
+                    rejected.increment();
+                    return false;
+                }
+                return true;
+            }
+        }
+        if (maxDepth > 0 && trace != null && trace.getDepth() > maxDepth) {
+            TraceNode parent = trace.getParent();
+            String reason = "an Event deeper than " + maxDepth + " in the cascade of trace " + trace.getTraceId();
+            if (parent != null && sourceID.equals(parent.getSourceID())) {
+                restrict(source, sourceID, reason, now);
+            } else {
+                reject(sourceID + " fired " + reason + ", rejecting it");
+            }
+            return false;
+        }
+        if (sourceRate > 0 && source != null && source.rate.increment(now) > sourceRate) {
+            restrict(source, sourceID, "more than " + sourceRate + " Events per second", now);
+            return false;
+        }
+        if (typeRate > 0) {
+            int count = countType(event.getType(), now);
+            if (count > typeRate) {
+                if (count == typeRate + 1) {
+                    reject("more than " + typeRate + " Events of the type " + event.getType()
+                            + " per second were fired, rejecting them for the rest of the second");
+                } else {
+                    rejected.increment();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * rejects the Event and restricts the source responsible for the storm
+     * @param source the state of the source, null if not tracked
+     * @param sourceID the ID of the source
+     * @param reason what the source fired
+     * @param now the current time of the clock
+     */
+    private void restrict(Source source, String sourceID, String reason, long now) {
+        storms.increment();
+        rejected.increment();
+        if (source != null && source.restrictedUntil.getAndSet(now + cooldown) == 0) {
+            eventDistributor.error("event-storm detected: " + sourceID + " fired " + reason + ", "
+                    + (quarantine ? "quarantining" : "throttling") + " it for at least "
+                    + TimeUnit.NANOSECONDS.toMillis(cooldown) + " ms");
+        }
+    }
+
+    /**
+     * rejects the Event without restricting its source
+     * @param message the message to log
+     */
+    private void reject(String message) {
+        storms.increment();
+        rejected.increment();
+        eventDistributor.error("event-storm detected: " + message);
+    }
+
+    private int countType(String type, long now) {
+        Rate rate = types.get(type);
+        if (rate == null) {
+            if (types.size() >= MAX_TRACKED)
+                return 0;
+            rate = types.computeIfAbsent(type, key -> new Rate());
+        }
+        return rate.increment(now);
+    }
+
+    /**
+     * lifts the restriction of the source
+     * @param sourceID the ID of the source
+     * @return true if the source was restricted
+     */
+    boolean release(String sourceID) {
+        Source source = sources.get(sourceID);
+        return source != null && source.restrictedUntil.getAndSet(0) != 0;
+    }
+
+    /**
+     * returns the IDs of the currently restricted sources
+     * @return a sorted List of the IDs
+     */
+    List<String> getRestricted() {
+        long now = clock.getAsLong();
+        List<String> restricted = new ArrayList<>();
+        sources.forEach((id, source) -> {
+            long until = source.restrictedUntil.get();
+            if (until != 0 && now - until < 0)
+                restricted.add(id);
+        });
+        Collections.sort(restricted);
+        return restricted;
+    }
+
+    long getStormCount() {
+        return storms.sum();
+    }
+
+    long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * the state of one source
+     */
+    private static final class Source {
+        private final Rate rate = new Rate();
+        //counts the accepted Events while throttled
+        private final Rate throttled = new Rate();
+        //the time of the clock when the restriction ends, 0 if not restricted
+        private final AtomicLong restrictedUntil = new AtomicLong(0);
+    }
+
+    /**
+     * counts the Events of the current second
+     */
+    private static final class Rate {
+        private long second = Long.MIN_VALUE;
+        private int count = 0;
+
+        /**
+         * counts one Event
+         * @param now the current time of the clock
+         * @return the number of Events in the current second, including this one
+         */
+        synchronized int increment(long now) {
+            long current = now / 1_000_000_000L;
+            if (current != second) {
+                second = current;
+                count = 0;
+            }
+            return ++count;
+        }
+    }
+}
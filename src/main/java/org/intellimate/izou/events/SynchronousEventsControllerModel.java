@@ -0,0 +1,18 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+/**
+ * An EventsController which gets called directly on the thread dispatching the Event, instead of being submitted to
+ * the ThreadPool.
+ * <p>
+ * Implement this interface if the decision is cheap, e.g. only based on the type and the descriptors of the Event.
+ * The implementation must never block, it would stall all the other Events of the partition. The synchronous
+ * EventsControllers are asked before all the other EventsControllers, if one of them cancels the Event, the others
+ * are not asked at all.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public interface SynchronousEventsControllerModel extends EventsControllerModel {
+}
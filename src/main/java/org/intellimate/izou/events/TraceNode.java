@@ -0,0 +1,232 @@
+package org.intellimate.izou.events;
+
+import ro.fortsoft.pf4j.AddonAccessible;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Event of a cascade recorded by {@link EventTraces}.
+ * <p>
+ * An Event fired while the EventDistributor runs a task for another Event (an EventsController, a listener, a
+ * lifecycle-callback etc.) is a child of this Event, an Event fired from anywhere else starts a new trace. The id of
+ * the trace is the id of its root. The timings are measured with {@link System#nanoTime()}, the node does not keep a
+ * reference to the Event.
+ * </p>
+ * @version 1.0
+ */
+@AddonAccessible
+public final class TraceNode {
+    private final long id;
+    private final TraceNode parent;
+    private final TraceNode root;
+    private final int depth;
+    private final String type;
+    private final String sourceID;
+    //System.nanoTime() when fired, started and completed, 0 if not yet reached
+    private final long fired;
+    private volatile long started = 0;
+    private volatile long completed = 0;
+    private volatile boolean canceled = false;
+    //guarded by this, null if no children
+    private List<TraceNode> children = null;
+    //the number of nodes attached to the trace, only used by the root
+    private final AtomicInteger size;
+
+    /**
+     * creates a new TraceNode
+     * @param id the id of the Event
+     * @param parent the parent or null if it is the root of a trace
+     * @param type the type of the Event
+     * @param sourceID the ID of the source of the Event
+     */
+    TraceNode(long id, TraceNode parent, String type, String sourceID) {
+        this.id = id;
+        this.parent = parent;
+        this.root = parent != null ? parent.root : this;
+        this.depth = parent != null ? parent.depth + 1 : 0;
+        this.type = type;
+        this.sourceID = sourceID;
+        this.fired = System.nanoTime();
+        this.size = parent != null ? null : new AtomicInteger(1);
+    }
+
+    /**
+     * adds the child if the trace is not full
+     * @param child the child
+     * @param maxSize the maximum number of nodes of a trace
+     * @return true if added
+     */
+    boolean addChild(TraceNode child, int maxSize) {
+        if (root.size.incrementAndGet() > maxSize) {
+            root.size.decrementAndGet();
+            return false;
+        }
+        synchronized (this) {
+            if (children == null)
+                children = new ArrayList<>(2);
+            children.add(child);
+        }
+        return true;
+    }
+
+    void started(long now) {
+        started = now;
+    }
+
+    void canceled() {
+        canceled = true;
+    }
+
+    /**
+     * marks the node as completed
+     * @param now System.nanoTime()
+     * @return true if it was not completed before
+     */
+    boolean completed(long now) {
+        if (completed != 0)
+            return false;
+        completed = now;
+        return true;
+    }
+
+    TraceNode getParent() {
+        return parent;
+    }
+
+    long getFired() {
+        return fired;
+    }
+
+    /**
+     * returns the id of the Event
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * returns the id of the Event which caused this Event
+     * @return the id of the parent or 0 if this is the root of the trace
+     */
+    public long getParentId() {
+        return parent != null ? parent.id : 0;
+    }
+
+    /**
+     * returns the id of the trace, which is the id of its root
+     * @return the id of the trace
+     */
+    public long getTraceId() {
+        return root.id;
+    }
+
+    /**
+     * returns how many Events are between this Event and the root of the trace
+     * @return the depth, 0 for the root
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * returns the type of the Event
+     * @return the type
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * returns the ID of the source of the Event
+     * @return the ID of the source
+     */
+    public String getSourceID() {
+        return sourceID;
+    }
+
+    /**
+     * returns whether the Event was completely processed (or discarded)
+     * @return true if completed
+     */
+    public boolean isCompleted() {
+        return completed != 0;
+    }
+
+    /**
+     * returns whether the Event was canceled
+     * @return true if canceled
+     */
+    public boolean isCanceled() {
+        return canceled;
+    }
+
+    /**
+     * returns the time the Event waited until the EventDistributor started processing it
+     * @param unit the unit of the result
+     * @return the time or 0 if the processing did not start
+     */
+    public long getQueueTime(TimeUnit unit) {
+        long start = started;
+        return start != 0 ? unit.convert(start - fired, TimeUnit.NANOSECONDS) : 0;
+    }
+
+    /**
+     * returns the time the EventDistributor spent processing the Event (including the time its EventsControllers,
+     * listeners and OutputPlugins took)
+     * @param unit the unit of the result
+     * @return the time or 0 if the processing did not start or complete
+     */
+    public long getProcessingTime(TimeUnit unit) {
+        return unit.convert(getProcessingNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * returns the processing time of this Event and all the Events it caused
+     * @param unit the unit of the result
+     * @return the total time
+     */
+    public long getTotalProcessingTime(TimeUnit unit) {
+        long total = getProcessingNanos();
+        for (TraceNode child : getChildren()) {
+            total += child.getTotalProcessingTime(TimeUnit.NANOSECONDS);
+        }
+        return unit.convert(total, TimeUnit.NANOSECONDS);
+    }
+
+    long getProcessingNanos() {
+        long start = started;
+        long end = completed;
+        return start != 0 && end != 0 ? end - start : 0;
+    }
+
+    /**
+     * returns the recorded Events caused by this Event
+     * @return a List of the children in the order they were fired
+     */
+    public synchronized List<TraceNode> getChildren() {
+        return children != null ? new ArrayList<>(children) : Collections.emptyList();
+    }
+
+    /**
+     * returns the number of recorded Events caused by this Event, directly or indirectly
+     * @return the number of descendants
+     */
+    public int getDescendantCount() {
+        int count = 0;
+        for (TraceNode child : getChildren()) {
+            count += 1 + child.getDescendantCount();
+        }
+        return count;
+    }
+
+    @Override
+    public String toString() {
+        return "TraceNode{id=" + id + ", parentId=" + getParentId() + ", traceId=" + getTraceId() + ", type='" + type
+                + "', sourceID='" + sourceID + "'}";
+    }
+}
@@ -0,0 +1,91 @@
+package org.intellimate.izou.events;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches the decisions of the cacheable EventsControllers (see {@link EventsControllerModel#isVerdictCacheable()}),
+ * keyed by the EventsController and the type and the {@link DescriptorSet} of the Event.
+ * <p>
+ * Invalidating removes the whole table of the EventsController, so a decision which was still computed while
+ * invalidating never gets visible.
+ * </p>
+ * @version 1.0
+ */
+class VerdictCache {
+    //upper bound for the cached decisions of one EventsController, protects against events with random descriptors
+    private static final int MAX_CACHED = 4096;
+    private final ConcurrentHashMap<EventsControllerModel, Map<Signature, Boolean>> verdicts
+            = new ConcurrentHashMap<>();
+
+    /**
+     * returns the current table of cached decisions of the EventsController
+     * @param controller the EventsController
+     * @return the table of decisions
+     */
+    Map<Signature, Boolean> getVerdicts(EventsControllerModel controller) {
+        return verdicts.computeIfAbsent(controller, key -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * caches the decision
+     * @param table the table returned from {@link #getVerdicts(EventsControllerModel)}, may be null
+     * @param signature the Signature of the Event
+     * @param verdict the decision
+     */
+    void remember(Map<Signature, Boolean> table, Signature signature, boolean verdict) {
+        if (table != null && table.size() < MAX_CACHED)
+            table.putIfAbsent(signature, verdict);
+    }
+
+    /**
+     * removes all the cached decisions of the EventsController
+     * @param controller the EventsController
+     */
+    void invalidate(EventsControllerModel controller) {
+        verdicts.remove(controller);
+    }
+
+    /**
+     * removes all the cached decisions
+     */
+    void invalidate() {
+        verdicts.clear();
+    }
+
+    /**
+     * the key of a cached decision.
+     * <p>
+     * The DescriptorSet of an Event also contains its type, so the type is kept apart: otherwise the type "a" with the
+     * descriptor "b" would share the decision of the type "b" with the descriptor "a".
+     * </p>
+     */
+    static final class Signature {
+        private final String type;
+        private final DescriptorSet descriptors;
+
+        /**
+         * creates a new Signature
+         * @param type the type of the Event
+         * @param descriptors the DescriptorSet of the Event
+         */
+        Signature(String type, DescriptorSet descriptors) {
+            this.type = type;
+            this.descriptors = descriptors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Signature)) return false;
+            Signature signature = (Signature) o;
+            return Objects.equals(type, signature.type) && descriptors.equals(signature.descriptors);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(type) + descriptors.hashCode();
+        }
+    }
+}
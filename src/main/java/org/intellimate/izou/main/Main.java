@@ -8,6 +8,7 @@ import org.intellimate.izou.addon.AddOnModel;
 import org.intellimate.izou.events.EventDistributor;
 import org.intellimate.izou.events.LocalEventManager;
 import org.intellimate.izou.identification.AddOnInformationManager;
+import org.intellimate.izou.identification.IdentificationManagerM;
 import org.intellimate.izou.output.OutputControllerManager;
 import org.intellimate.izou.output.OutputManager;
 import org.intellimate.izou.resource.ResourceManager;
@@ -43,6 +44,7 @@ public class Main {
     private final ActivatorManager activatorManager;
     private final AddOnManager addOnManager;
     private final AddOnInformationManager addOnInformationManager;
+    private final IdentificationManagerM identificationManager;
     private final FileManager fileManager;
     private final FilePublisher filePublisher;
     private final IzouLogger izouLogger;
@@ -99,6 +101,7 @@ public class Main {
             System.setProperty("debug", "true");
         }
 
+        identificationManager = initIdentificationManager();
         addOnInformationManager = new AddOnInformationManager(this); // Put this before the addOnManager, it needs it
         addOnManager = new AddOnManager(this);
         threadPoolManager = new ThreadPoolManager(this);
@@ -108,7 +111,6 @@ public class Main {
         resourceManager = new ResourceManager(this);
         eventDistributor = new EventDistributor(this);
         localEventManager = new LocalEventManager(this);
-        threadPoolManager.getIzouThreadPool().submit(localEventManager);
         activatorManager = new ActivatorManager(this);
         filePublisher = new FilePublisher(this);
         soundManager = new SoundManager(this);
@@ -137,6 +139,7 @@ public class Main {
             fileLogger.debug("retrieving addons & registering them");
             addOnManager.retrieveAndRegisterAddOns();
         }
+        eventDistributor.replayRecoveredEvents();
     }
 
     public static void main(String[] args) {
@@ -147,6 +150,11 @@ public class Main {
         }
     }
 
+    @SuppressWarnings("deprecation")
+    private IdentificationManagerM initIdentificationManager() {
+        return org.intellimate.izou.identification.IdentificationManager.getInstance();
+    }
+
     private SystemMail initMail() {
         // Create system mail
         SystemMail mailTemp = null;
@@ -245,6 +253,10 @@ public class Main {
         return addOnInformationManager;
     }
 
+    public IdentificationManagerM getIdentificationManager() {
+        return identificationManager;
+    }
+
     public ResourceManager getResourceManager() {
         return resourceManager;
     }
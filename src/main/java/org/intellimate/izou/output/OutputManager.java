@@ -1,7 +1,9 @@
 package org.intellimate.izou.output;
 
 import com.google.common.reflect.TypeToken;
+import org.intellimate.izou.events.DescriptorSet;
 import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.events.PooledEvent;
 import org.intellimate.izou.identification.Identification;
 import org.intellimate.izou.identification.IdentificationManager;
 import org.intellimate.izou.identification.IdentificationManagerM;
@@ -14,14 +16,12 @@ import org.intellimate.izou.util.IzouModule;
 
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +45,10 @@ public class OutputManager extends IzouModule implements AddonThreadPoolUser {
      */
     private HashMap<String, IdentifiableSet<OutputExtensionModel<?, ?>>> outputExtensions;
 
+    /**
+     * the union of the descriptor-filters of all the output-plugins, null if one of them gets all the Events
+     */
+    private volatile DescriptorSet subscribedDescriptors = DescriptorSet.EMPTY;
 
     /**
      * Creates a new output-manager with a list of output-plugins
@@ -67,6 +71,7 @@ public class OutputManager extends IzouModule implements AddonThreadPoolUser {
     public void addOutputPlugin(OutputPluginModel<?, ?> outputPlugin) throws IllegalIDException {
         if (!futureHashMap.containsKey(outputPlugin.getID())) {
             outputPlugins.add(outputPlugin);
+            updateSubscribedDescriptors();
             futureHashMap.put(outputPlugin.getID(), submit(outputPlugin));
         } else {
             if (futureHashMap.get(outputPlugin.getID()).isDone()) {
@@ -87,6 +92,46 @@ public class OutputManager extends IzouModule implements AddonThreadPoolUser {
             future.cancel(true);
         }
         outputPlugins.remove(outputPlugin);
+        updateSubscribedDescriptors();
+    }
+
+    /**
+     * computes the union of the descriptor-filters of all the output-plugins
+     */
+    private synchronized void updateSubscribedDescriptors() {
+        DescriptorSet union = DescriptorSet.EMPTY;
+        for (OutputPluginModel<?, ?> outputPlugin : new ArrayList<>(outputPlugins)) {
+            DescriptorSet filter = outputPlugin.getDescriptorFilter();
+            if (filter == null) {
+                union = null;
+                break;
+            }
+            union = union.union(filter);
+        }
+        subscribedDescriptors = union;
+    }
+
+    /**
+     * returns whether an output-plugin is interested in the Event
+     *
+     * @param event the Event
+     * @return true if an output-plugin gets the Event
+     */
+    public boolean isSubscribed(EventModel<?> event) {
+        DescriptorSet descriptors = subscribedDescriptors;
+        return descriptors == null || descriptors.intersects(event.getDescriptorSet());
+    }
+
+    /**
+     * returns whether the output-plugin is interested in the Event
+     *
+     * @param outputPlugin the output-plugin
+     * @param descriptors the descriptors of the Event
+     * @return true if the output-plugin has no descriptor-filter or the filter matches
+     */
+    private boolean isInterested(OutputPluginModel<?, ?> outputPlugin, DescriptorSet descriptors) {
+        DescriptorSet filter = outputPlugin.getDescriptorFilter();
+        return filter == null || filter.intersects(descriptors);
     }
 
     /**
@@ -136,47 +181,64 @@ public class OutputManager extends IzouModule implements AddonThreadPoolUser {
      * @param event an Instance of Event
      */
     public void passDataToOutputPlugins(EventModel event) {
+        if (!isSubscribed(event))
+            return;
+        DescriptorSet descriptors = event.getDescriptorSet();
         IdentificationManagerM identificationManager = IdentificationManager.getInstance();
-        List<Identification> allIds = outputPlugins.stream()
-                .map(identificationManager::getIdentification)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
-
-        HashMap<Integer, List<Identification>> outputPluginBehaviour = event.getEventBehaviourController()
-                .getOutputPluginBehaviour(allIds);
-
         @SuppressWarnings("unchecked")
         Set<OutputPluginModel> outputPluginsCopy = (Set<OutputPluginModel>) this.outputPlugins.clone();
+        outputPluginsCopy.removeIf(outputPlugin -> !isInterested(outputPlugin, descriptors));
 
-        Function<List<Identification>, List<OutputPluginModel>> getOutputPlugin = ids -> ids.stream()
-                .map(id -> outputPluginsCopy.stream()
-                        .filter(outputPlugin -> outputPlugin.isOwner(id))
-                        .findFirst()
-                        .orElseGet(null))
-                .filter(Objects::nonNull)
-                .peek(outputPluginsCopy::remove)
-                .collect(Collectors.toList());
+        List<Identification> allIds = new ArrayList<>(outputPluginsCopy.size());
+        for (OutputPluginModel<?, ?> outputPlugin : outputPluginsCopy) {
+            identificationManager.getIdentification(outputPlugin).ifPresent(allIds::add);
+        }
 
-        outputPluginBehaviour.entrySet().stream()
-                .sorted(Comparator.comparingInt((Map.Entry<Integer, List<Identification>> x) -> x.getKey()).reversed())
-                .flatMap(entry -> getOutputPlugin.apply(entry.getValue()).stream())
-                .distinct()
-                .forEach(op -> processOutputPlugin(event, op));
+        HashMap<Integer, List<Identification>> outputPluginBehaviour = event.getEventBehaviourController()
+                .getOutputPluginBehaviour(allIds);
+
+        //the OutputPlugins with the highest Integer first, then all the others
+        Integer[] priorities = outputPluginBehaviour.keySet().toArray(new Integer[outputPluginBehaviour.size()]);
+        Arrays.sort(priorities, Collections.reverseOrder());
+        for (Integer priority : priorities) {
+            for (Identification id : outputPluginBehaviour.get(priority)) {
+                OutputPluginModel owner = null;
+                for (OutputPluginModel<?, ?> outputPlugin : outputPluginsCopy) {
+                    if (outputPlugin.isOwner(id)) {
+                        owner = outputPlugin;
+                        break;
+                    }
+                }
+                if (owner != null) {
+                    outputPluginsCopy.remove(owner);
+                    processOutputPlugin(event, owner);
+                }
+            }
+        }
 
-        outputPluginsCopy.forEach(op -> processOutputPlugin(event, op));
+        for (OutputPluginModel<?, ?> outputPlugin : outputPluginsCopy) {
+            processOutputPlugin(event, outputPlugin);
+        }
     }
 
     private void processOutputPlugin(EventModel event, OutputPluginModel outputPlugin) {
         //debug("processing outputPlugin: " + outputPlugin.getID() + " for event: " + event.getDescriptors().toString());
-        final Lock lock = new ReentrantLock();
-        final Condition processing = lock.newCondition();
+        //a latch, so the signal does not get lost if the OutputPlugin finishes before we start waiting
+        final CountDownLatch processing = new CountDownLatch(1);
 
-        Consumer<Boolean> consumer = noParam -> {
-            lock.lock();
-            processing.signal();
-            lock.unlock();
-        };
+        Consumer<Boolean> consumer;
+        if (event instanceof PooledEvent) {
+            //the OutputPlugin holds a reference until it finished, which may be after the timeout
+            PooledEvent pooled = ((PooledEvent) event).retain();
+            AtomicBoolean released = new AtomicBoolean(false);
+            consumer = noParam -> {
+                if (released.compareAndSet(false, true))
+                    pooled.release();
+                processing.countDown();
+            };
+        } else {
+            consumer = noParam -> processing.countDown();
+        }
 
         ResourceMinimalImpl<Consumer<Boolean>> resource = IdentificationManager.getInstance().getIdentification(this)
                 .map(id -> new ResourceMinimalImpl<>(outputPlugin.getID(), id, consumer, null))
@@ -187,12 +249,9 @@ public class OutputManager extends IzouModule implements AddonThreadPoolUser {
 
         boolean finished = false;
         try {
-            lock.lock();
             finished = processing.await(100, TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             error("Waiting for OutputPlugins interrupted", e);
-        } finally {
-            lock.unlock();
         }
         if (finished) {
             //debug("OutputPlugin: " + outputPlugin.getID() + " finished");
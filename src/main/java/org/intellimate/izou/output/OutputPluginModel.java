@@ -1,6 +1,7 @@
 package org.intellimate.izou.output;
 
 import com.google.common.reflect.TypeToken;
+import org.intellimate.izou.events.DescriptorSet;
 import org.intellimate.izou.events.EventModel;
 import org.intellimate.izou.identification.Identifiable;
 import org.intellimate.izou.identification.Identification;
@@ -56,4 +57,16 @@ public interface OutputPluginModel<X, T> extends Runnable, Identifiable {
      */
     //i don't think there is another way
     TypeToken<X> getArgumentType();
+
+    /**
+     * returns the descriptors the OutputPlugin is interested in.
+     * <p>
+     * The OutputPlugin only gets the Events with at least one of the descriptors (or the type), Events nobody is
+     * interested in may not get fired at all. Return the same (precomputed) instance on every call.
+     * </p>
+     * @return the DescriptorSet or null to get all the Events, default is null
+     */
+    default DescriptorSet getDescriptorFilter() {
+        return null;
+    }
 }
@@ -31,6 +31,13 @@ public class ListResourceMinimalImpl implements ListResourceProvider {
         this.resources.addAll(resources);
     }
 
+    /**
+     * removes all the Resources from the Container
+     */
+    public void clear() {
+        resources.clear();
+    }
+
     /**
      * checks whether it can provide the resource
      *
@@ -111,6 +118,17 @@ public class ListResourceMinimalImpl implements ListResourceProvider {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * returns all the Resources in the Container
+     *
+     * @return a List of all the Resources
+     */
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List<ResourceModel> provideAllResources() {
+        return new ArrayList<>(resources);
+    }
+
     @Override
     public String toString() {
         return "ListResourceProviderImpl{" +
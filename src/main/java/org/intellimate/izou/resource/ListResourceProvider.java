@@ -2,6 +2,7 @@ package org.intellimate.izou.resource;
 
 import ro.fortsoft.pf4j.AddonAccessible;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -21,4 +22,13 @@ public interface ListResourceProvider extends ResourceProvider {
      * @param resources a List of resources to add
      */
     void addResource(List<ResourceModel> resources);
+
+    /**
+     * returns all the Resources in the Container
+     * @return a List of all the Resources, empty if the Container can not list them
+     */
+    @SuppressWarnings("rawtypes")
+    default List<ResourceModel> provideAllResources() {
+        return Collections.emptyList();
+    }
 }
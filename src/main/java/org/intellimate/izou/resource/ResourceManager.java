@@ -2,6 +2,7 @@ package org.intellimate.izou.resource;
 
 import org.intellimate.izou.util.AddonThreadPoolUser;
 import org.intellimate.izou.util.IzouModule;
+import org.intellimate.izou.events.DescriptorSet;
 import org.intellimate.izou.events.EventModel;
 import org.intellimate.izou.identification.IllegalIDException;
 import org.intellimate.izou.main.Main;
@@ -17,10 +18,15 @@ import java.util.stream.Collectors;
  */
 public class ResourceManager extends IzouModule implements AddonThreadPoolUser {
     /**
-     * this object maps all the eventIDs to ResourceBuilders
-     * the key is the registered event (or noEvent)
+     * this object maps all the ResourceBuilders to the descriptors of the events they are registered for, in the order
+     * of their registration.
+     * It gets replaced on every change (copy-on-write)
+     */
+    private volatile Map<ResourceBuilderModel, DescriptorSet> eventSubscribers = new LinkedHashMap<>();
+    /**
+     * the union of all the descriptors in eventSubscribers
      */
-    private HashMap<String, LinkedList<ResourceBuilderModel>> eventSubscribers = new HashMap<>();
+    private volatile DescriptorSet subscribedDescriptors = DescriptorSet.EMPTY;
     /**
      * this object maps all the resourceID to ResourceBuilders
      * the key is the registered event (or noEvent)
@@ -32,22 +38,30 @@ public class ResourceManager extends IzouModule implements AddonThreadPoolUser {
         super(main);
     }
 
+    /**
+     * returns whether a ResourceBuilder is registered for one of the descriptors (or the type) of the Event
+     * @param event the Event
+     * @return true if resources are generated for the Event
+     */
+    public boolean isSubscribed(EventModel<?> event) {
+        return subscribedDescriptors.intersects(event.getDescriptorSet());
+    }
+
     /**
      * generates all the resources for an event
      * @param event the Event to generate the resources for
      * @return a List containing all the generated resources
      */
     public List<ResourceModel> generateResources(EventModel<?> event) {
-        if(!event.getAllInformations().stream()
-                .anyMatch(eventSubscribers::containsKey)) return new LinkedList<>();
+        DescriptorSet descriptors = event.getDescriptorSet();
+        if (!subscribedDescriptors.intersects(descriptors)) return new LinkedList<>();
+
+        List<ResourceBuilderModel> resourceBuilders = new ArrayList<>();
+        for (Map.Entry<ResourceBuilderModel, DescriptorSet> entry : eventSubscribers.entrySet()) {
+            if (entry.getValue().intersects(descriptors))
+                resourceBuilders.add(entry.getKey());
+        }
 
-        List<ResourceBuilderModel> resourceBuilders = event.getAllInformations().stream()
-                .map(eventSubscribers::get)
-                .filter(Objects::nonNull)
-                .flatMap(Collection::stream)
-                .distinct()
-                .collect(Collectors.toList());
-        
         return generateResources(resourceBuilders, event);
     }
 
@@ -64,7 +78,7 @@ public class ResourceManager extends IzouModule implements AddonThreadPoolUser {
                 .collect(Collectors.toList());
 
         try {
-            futures = timeOut(futures, 3000);
+            futures = awaitAll(futures, 3000);
         } catch (InterruptedException e) {
             debug("interrupted while doing an time-out", e);
         }
@@ -162,29 +176,18 @@ public class ResourceManager extends IzouModule implements AddonThreadPoolUser {
      *
      * @param resourceBuilder an instance of ResourceBuilder
      */
-    private void registerEventsForResourceBuilder(ResourceBuilderModel resourceBuilder) {
+    private synchronized void registerEventsForResourceBuilder(ResourceBuilderModel resourceBuilder) {
         List<? extends EventModel<?>> events = resourceBuilder.announceEvents();
         if(events == null) return;
-        events.stream()
+        DescriptorSet descriptors = events.stream()
                 .filter(event -> event.getAllInformations() != null)
-                .flatMap(event -> event.getAllInformations().stream())
-                .map(this::getRegisteredListForEvent)
-                .forEach(list -> list.add(resourceBuilder));
-    }
-
-    /**
-     * returns a list of all the ResourceBuilders listening to the Event-ID 
-     * @param event the eventID
-     * @return a List of ResourceBuilders
-     */
-    private List<ResourceBuilderModel> getRegisteredListForEvent(String event) {
-        if(eventSubscribers.containsKey(event)) {
-            return eventSubscribers.get(event);
-        } else {
-            LinkedList<ResourceBuilderModel> tempList = new LinkedList<>();
-            eventSubscribers.put(event, tempList);
-            return tempList;
-        }
+                .map(EventModel::getDescriptorSet)
+                .reduce(eventSubscribers.getOrDefault(resourceBuilder, DescriptorSet.EMPTY), DescriptorSet::union);
+        if (descriptors.isEmpty()) return;
+        LinkedHashMap<ResourceBuilderModel, DescriptorSet> copy = new LinkedHashMap<>(eventSubscribers);
+        copy.put(resourceBuilder, descriptors);
+        eventSubscribers = copy;
+        subscribedDescriptors = subscribedDescriptors.union(descriptors);
     }
 
     /**
@@ -214,10 +217,11 @@ public class ResourceManager extends IzouModule implements AddonThreadPoolUser {
      * unregisters the events for the ResourceBuilder
      * @param resourceBuilder an instance of ResourceBuilder
      */
-    private void unregisterEventsForResourceBuilder(ResourceBuilderModel resourceBuilder) {
-        resourceBuilder.announceEvents().stream()
-                .map(eventSubscribers::get)
-                .filter(Objects::nonNull)
-                .forEach(list -> list.remove(resourceBuilder));
+    private synchronized void unregisterEventsForResourceBuilder(ResourceBuilderModel resourceBuilder) {
+        if (!eventSubscribers.containsKey(resourceBuilder)) return;
+        LinkedHashMap<ResourceBuilderModel, DescriptorSet> copy = new LinkedHashMap<>(eventSubscribers);
+        copy.remove(resourceBuilder);
+        eventSubscribers = copy;
+        subscribedDescriptors = copy.values().stream().reduce(DescriptorSet.EMPTY, DescriptorSet::union);
     }
 }
@@ -313,6 +313,8 @@ public class ContextImplementation implements Context {
          * Adds an listener for events.
          * <p>
          * It will register for all ids individually!
+         * An id can also be a pattern, where * matches one segment or, as the last segment, all the remaining segments
+         * (e.g. izou.sound.* matches izou.sound.mute and izou.sound.player.stop).
          * This method will ignore if this listener is already listening to an Event.
          * Method is thread-safe.
          * </p>
@@ -323,6 +325,22 @@ public class ContextImplementation implements Context {
         public void registerEventListener(List<String> ids, EventListenerModel eventListener) {
             main.getEventDistributor().registerEventListener(ids, eventListener);
         }
+
+        /**
+         * Adds an listener for events.
+         * <p>
+         * It will register for all descriptors individually!
+         * This method will ignore if this listener is already listening to an Event.
+         * Method is thread-safe.
+         * </p>
+         *
+         * @param descriptors   the pre-resolved descriptors (and types)
+         * @param eventListener the ActivatorEventListener-interface for receiving activator events
+         */
+        @Override
+        public void registerEventListener(DescriptorSet descriptors, EventListenerModel eventListener) {
+            main.getEventDistributor().registerEventListener(descriptors, eventListener);
+        }
         /**
          * unregister an EventListener
          *<p>
@@ -377,6 +395,8 @@ public class ContextImplementation implements Context {
          * Adds an listener for events that gets called when the event finished processing.
          * <p>
          * It will register for all ids individually!
+         * An id can also be a pattern, where * matches one segment or, as the last segment, all the remaining segments
+         * (e.g. izou.sound.* matches izou.sound.mute and izou.sound.player.stop).
          * This method will ignore if this listener is already listening to an Event.
          * Method is thread-safe.
          * </p>
@@ -389,6 +409,22 @@ public class ContextImplementation implements Context {
             main.getEventDistributor().registerEventFinishedListener(ids, eventListener);
         }
 
+        /**
+         * Adds an listener for events that gets called when the event finished processing.
+         * <p>
+         * It will register for all descriptors individually!
+         * This method will ignore if this listener is already listening to an Event.
+         * Method is thread-safe.
+         * </p>
+         *
+         * @param descriptors   the pre-resolved descriptors (and types)
+         * @param eventListener the ActivatorEventListener-interface for receiving activator events
+         */
+        @Override
+        public void registerEventFinishedListener(DescriptorSet descriptors, EventListenerModel eventListener) {
+            main.getEventDistributor().registerEventFinishedListener(descriptors, eventListener);
+        }
+
         /**
          * unregister an EventListener that got called when the event finished processing.
          * <p>
@@ -456,6 +492,18 @@ public class ContextImplementation implements Context {
             main.getLocalEventManager().fireEvent(event);
         }
 
+        /**
+         * This method fires multiple Events at once, they are passed to the EventDistributor in one operation.
+         *
+         * @param events the fired Events
+         * @throws IllegalIDException not yet implemented
+         */
+        @Override
+        @SuppressWarnings("rawtypes")
+        public void fireEvents(List<? extends EventModel> events) throws IllegalIDException {
+            main.getLocalEventManager().fireEvents(events);
+        }
+
         /**
          * returns the API for the EventsDistributor
          * @return Distributor
@@ -532,6 +580,32 @@ public class ContextImplementation implements Context {
                 main.getEventDistributor().unregisterEventsController(eventsController);
             }
 
+            /**
+             * Removes all the cached decisions of the EventController
+             * <p>
+             * Method is thread-safe.
+             *
+             * @param eventsController the EventController Interface
+             */
+            @Override
+            public void invalidateVerdicts(EventsControllerModel eventsController) {
+                main.getEventDistributor().invalidateVerdicts(eventsController);
+            }
+
+            /**
+             * Sets the ConflationPolicy of all the Events with the type or descriptor
+             * <p>
+             * Method is thread-safe.
+             *
+             * @param descriptor the type or descriptor
+             * @param policy the policy, NONE disables the conflation
+             * @param milliseconds the length of the window in milliseconds
+             */
+            @Override
+            public void setConflationPolicy(String descriptor, ConflationPolicy policy, long milliseconds) {
+                main.getEventDistributor().setConflationPolicy(descriptor, policy, milliseconds);
+            }
+
             /**
              * fires the event concurrently, this is generally discouraged.
              * <p>
@@ -549,6 +623,16 @@ public class ContextImplementation implements Context {
                 main.getEventDistributor().fireEventConcurrently(eventModel);
             }
 
+            /**
+             * returns the pool of the PooledEvents.
+             *
+             * @return the EventPool
+             */
+            @Override
+            public EventPool getEventPool() {
+                return main.getEventDistributor().getEventPool();
+            }
+
             /**
              * returns the ID of the Manager (EventsDistributor)
              */
@@ -1,5 +1,6 @@
 package org.intellimate.izou.system.context;
 
+import org.intellimate.izou.events.DescriptorSet;
 import org.intellimate.izou.events.EventModel;
 import org.intellimate.izou.events.EventCallable;
 import org.intellimate.izou.events.EventListenerModel;
@@ -36,6 +37,8 @@ public interface Events {
      * Adds an listener for events that gets called before the generation of the resources and the outputPlugins..
      * <p>
      * It will register for all ids individually!
+     * An id can also be a pattern, where * matches one segment or, as the last segment, all the remaining segments
+     * (e.g. izou.sound.* matches izou.sound.mute and izou.sound.player.stop).
      * This method will ignore if this listener is already listening to an Event.
      * Method is thread-safe.
      * </p>
@@ -44,6 +47,18 @@ public interface Events {
      */
     void registerEventListener(List<String> ids, EventListenerModel eventListener);
 
+    /**
+     * Adds an listener for events that gets called before the generation of the resources and the outputPlugins..
+     * <p>
+     * It will register for all descriptors individually!
+     * This method will ignore if this listener is already listening to an Event.
+     * Method is thread-safe.
+     * </p>
+     * @param descriptors the descriptors (and types), resolved with {@link DescriptorSet#of(String...)}
+     * @param eventListener the ActivatorEventListener-interface for receiving activator events
+     */
+    void registerEventListener(DescriptorSet descriptors, EventListenerModel eventListener);
+
     /**
      * unregister an EventListener that gets called before the generation of the resources and the outputPlugins.
      *<p>
@@ -88,6 +103,8 @@ public interface Events {
      * Adds an listener for events that gets called when the event finished processing.
      * <p>
      * It will register for all ids individually!
+     * An id can also be a pattern, where * matches one segment or, as the last segment, all the remaining segments
+     * (e.g. izou.sound.* matches izou.sound.mute and izou.sound.player.stop).
      * This method will ignore if this listener is already listening to an Event.
      * Method is thread-safe.
      * </p>
@@ -96,6 +113,18 @@ public interface Events {
      */
     void registerEventFinishedListener(List<String> ids, EventListenerModel eventListener);
 
+    /**
+     * Adds an listener for events that gets called when the event finished processing.
+     * <p>
+     * It will register for all descriptors individually!
+     * This method will ignore if this listener is already listening to an Event.
+     * Method is thread-safe.
+     * </p>
+     * @param descriptors the descriptors (and types), resolved with {@link DescriptorSet#of(String...)}
+     * @param eventListener the ActivatorEventListener-interface for receiving activator events
+     */
+    void registerEventFinishedListener(DescriptorSet descriptors, EventListenerModel eventListener);
+
     /**
      * unregister an EventListener that got called when the event finished processing.
      *<p>
@@ -146,10 +175,19 @@ public interface Events {
      * @param event the fired Event
      * @throws java.lang.IllegalAccessError not yet implemented
      * @throws IllegalIDException not yet implemented
-     * @throws MultipleEventsException if there is currently another Event processing
+     * @throws MultipleEventsException not thrown anymore, kept for compatibility
      */
     void fireEvent(EventModel event) throws IllegalIDException, MultipleEventsException;
 
+    /**
+     * This method fires multiple Events at once, they are passed to the EventDistributor in one operation.
+     *
+     * @param events the fired Events
+     * @throws IllegalIDException not yet implemented
+     */
+    @SuppressWarnings("rawtypes")
+    void fireEvents(List<? extends EventModel> events) throws IllegalIDException;
+
     /**
      * returns the API for the EventsDistributor
      * @return Distributor
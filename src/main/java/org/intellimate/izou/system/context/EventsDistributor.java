@@ -1,7 +1,9 @@
 package org.intellimate.izou.system.context;
 
+import org.intellimate.izou.events.ConflationPolicy;
 import org.intellimate.izou.events.EventCallable;
 import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.events.EventPool;
 import org.intellimate.izou.events.EventsControllerModel;
 import org.intellimate.izou.identification.Identification;
 import org.intellimate.izou.identification.IllegalIDException;
@@ -55,6 +57,28 @@ public interface EventsDistributor {
      */
     void unregisterEventsController(EventsControllerModel eventsController);
 
+    /**
+     * Removes all the cached decisions of the EventController (see {@link EventsControllerModel#isVerdictCacheable()})
+     * <p>
+     * Method is thread-safe.
+     * Call it every time the state the decisions are based on changed.
+     *
+     * @param eventsController the EventController Interface
+     */
+    void invalidateVerdicts(EventsControllerModel eventsController);
+
+    /**
+     * Sets the ConflationPolicy of all the Events with the type or descriptor, equal Events fired within the window
+     * get conflated.
+     * <p>
+     * Method is thread-safe.
+     *
+     * @param descriptor the type or descriptor
+     * @param policy the policy, NONE disables the conflation
+     * @param milliseconds the length of the window in milliseconds
+     */
+    void setConflationPolicy(String descriptor, ConflationPolicy policy, long milliseconds);
+
     /**
      * fires the event concurrently, this is generally discouraged.
      * <p>
@@ -68,6 +92,16 @@ public interface EventsDistributor {
      */
     void fireEventConcurrently(EventModel<?> eventModel);
 
+    /**
+     * returns the pool of the PooledEvents.
+     * <p>
+     * The acquired Events are recycled when the last reference was released, firing an Event passes the reference of
+     * the caller to the EventsDistributor.
+     * </p>
+     * @return the EventPool
+     */
+    EventPool getEventPool();
+
     /**
      * returns the ID of the Manager (EventsDistributor)
      * @return an instance of Identification
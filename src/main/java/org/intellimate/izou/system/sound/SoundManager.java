@@ -5,6 +5,7 @@ import org.intellimate.izou.events.EventLifeCycle;
 import org.intellimate.izou.events.EventListenerModel;
 import org.intellimate.izou.events.EventMinimalImpl;
 import org.intellimate.izou.events.EventModel;
+import org.intellimate.izou.events.EventPriority;
 import org.intellimate.izou.identification.Identification;
 import org.intellimate.izou.identification.IdentificationManager;
 import org.intellimate.izou.main.Main;
@@ -341,6 +342,8 @@ public class SoundManager extends IzouModule implements AddonThreadPoolUser, Eve
                     }))
                     .map(eventMinimal -> eventMinimal.addResource(
                             new ResourceMinimalImpl<>(SoundIDs.StopEvent.resourceSelector, eventMinimal.getSource(), identification, null)))
+                    //this may be called from a listener while the lane is waiting for the ENDED stage, so it can't
+                    //go through the queue and has no priority
                     .ifPresent(event -> getMain().getEventDistributor().fireEventConcurrently(event));
         }
         lock.lock();
@@ -355,8 +358,11 @@ public class SoundManager extends IzouModule implements AddonThreadPoolUser, Eve
 
     private void fireLineAccessEndedNotification() {
         if (knownIdentification != null) {
-            EventModel event = new EventMinimalImpl(SoundIDs.EndedEvent.type, knownIdentification, SoundIDs.EndedEvent.descriptors);
-            getMain().getEventDistributor().fireEventConcurrently(event);
+            EventModel event = new EventMinimalImpl(SoundIDs.EndedEvent.type, knownIdentification,
+                    SoundIDs.EndedEvent.descriptors, null, EventPriority.INTERACTIVE);
+            //may be called from a listener or the lifecycle of a line, it must not block on a full queue
+            if (!getMain().getEventDistributor().offerEvent(event))
+                debug("the line-ended notification was not accepted by the EventQueue");
         }
     }
 
@@ -397,10 +403,15 @@ public class SoundManager extends IzouModule implements AddonThreadPoolUser, Eve
     private void mute(AddOnModel model) {
         IdentificationManager.getInstance()
                 .getIdentification(this)
-                .map(id -> new EventMinimalImpl(SoundIDs.MuteEvent.type, id, SoundIDs.MuteEvent.descriptors))
+                .map(id -> new EventMinimalImpl(SoundIDs.MuteEvent.type, id, SoundIDs.MuteEvent.descriptors,
+                        null, EventPriority.REAL_TIME))
                 .map(eventMinimal -> eventMinimal.addResource(
                         new ResourceMinimalImpl<>(SoundIDs.MuteEvent.resourceSelector, eventMinimal.getSource(), model, null)))
-                .ifPresent(event -> getMain().getEventDistributor().fireEventConcurrently(event));
+                //may be called from a listener, it must not block on a full queue
+                .ifPresent(event -> {
+                    if (!getMain().getEventDistributor().offerEvent(event))
+                        debug("the mute-event was not accepted by the EventQueue");
+                });
     }
 
     /**
@@ -421,8 +432,13 @@ public class SoundManager extends IzouModule implements AddonThreadPoolUser, Eve
 
         IdentificationManager.getInstance()
                 .getIdentification(this)
-                .map(id -> new EventMinimalImpl(SoundIDs.UnMuteEvent.type, id, SoundIDs.UnMuteEvent.descriptors))
-                .ifPresent(event -> getMain().getEventDistributor().fireEventConcurrently(event));
+                .map(id -> new EventMinimalImpl(SoundIDs.UnMuteEvent.type, id, SoundIDs.UnMuteEvent.descriptors,
+                        null, EventPriority.REAL_TIME))
+                //may be called from a listener, it must not block on a full queue
+                .ifPresent(event -> {
+                    if (!getMain().getEventDistributor().offerEvent(event))
+                        debug("the unmute-event was not accepted by the EventQueue");
+                });
     }
 
     private void checkAndUpdateIdentification(Identification identification) {
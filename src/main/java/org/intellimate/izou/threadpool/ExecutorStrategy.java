@@ -0,0 +1,45 @@
+package org.intellimate.izou.threadpool;
+
+/**
+ * This enum contains the different kinds of ThreadPools the ThreadPoolManager can create.
+ * @version 1.0
+ */
+public enum ExecutorStrategy {
+    /**
+     * creates new threads as needed and reuses idle threads, the number of threads is unbounded.
+     */
+    CACHED,
+    /**
+     * uses at most a fixed number of threads, the other tasks wait in an unbounded queue.
+     * Tasks which run forever occupy a thread permanently, so the size must be larger than their number.
+     * Only supported for the ThreadPool of the AddOns.
+     */
+    BOUNDED,
+    /**
+     * a {@link java.util.concurrent.ForkJoinPool} where idle threads steal the tasks of busy threads.
+     * Blocking tasks occupy a thread, so the parallelism must be larger than the number of tasks which run forever.
+     * Only supported for the ThreadPool of the AddOns.
+     */
+    WORK_STEALING,
+    /**
+     * starts a new virtual thread for every task, requires a JVM supporting virtual threads (Java 21 or newer),
+     * otherwise {@link #CACHED} is used.
+     */
+    VIRTUAL;
+
+    /**
+     * parses the strategy from the value of a property, e.g. work-stealing.
+     * @param value the value, may be null
+     * @param defaultStrategy the strategy to return if the value is null or unknown
+     * @return the parsed strategy
+     */
+    public static ExecutorStrategy parse(String value, ExecutorStrategy defaultStrategy) {
+        if (value == null)
+            return defaultStrategy;
+        try {
+            return valueOf(value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return defaultStrategy;
+        }
+    }
+}
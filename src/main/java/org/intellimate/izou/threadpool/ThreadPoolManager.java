@@ -3,19 +3,51 @@ package org.intellimate.izou.threadpool;
 import org.intellimate.izou.util.IzouModule;
 import org.intellimate.izou.main.Main;
 
-import java.lang.reflect.Field;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * contains all the ThreadPools.
+ * <p>
+ * The kind of the ThreadPool of the Izou-Components and of the AddOns can be set with the properties
+ * {@value #IZOU_POOL_PROPERTY} (cached or virtual) and {@value #ADDONS_POOL_PROPERTY} (cached, bounded, work-stealing
+ * or virtual, see {@link ExecutorStrategy}, default: cached), e.g. in the izou.properties file. The size of a bounded
+ * pool and the parallelism of a work-stealing pool of the AddOns can be set with the property
+ * {@value #ADDONS_POOL_PROPERTY}{@value #SIZE_SUFFIX}.
+ * </p>
+ * <p>
+ * The ThreadPool of the Izou-Components can not be bounded or work-stealing: the lanes of the EventDistributor, the
+ * stages of pipelined lanes and the writer of the durable event-log block forever, so they would occupy all the
+ * threads and the other tasks (e.g. flushing the event-log a fired Event waits for) would never run. The AddOns-pool
+ * also runs the tasks of the AddOns which never finish (the activators, the OutputPlugins etc.), a bounded or
+ * work-stealing AddOns-pool must therefore be larger than their number, otherwise the listeners time out.
+ * </p>
  * @author LeanderK
  * @version 1.0
  */
 public class ThreadPoolManager extends IzouModule {
+    /**
+     * the property used to configure the kind of the ThreadPool of the Izou-Components
+     */
+    public static final String IZOU_POOL_PROPERTY = "izou.threadpool.izou";
+    /**
+     * the property used to configure the kind of the ThreadPool of the AddOns
+     */
+    public static final String ADDONS_POOL_PROPERTY = "izou.threadpool.addons";
+    /**
+     * appended to the property of a pool to configure its size
+     */
+    public static final String SIZE_SUFFIX = ".size";
     //holds the threads
-    private final ExecutorService izouThreadPool = Executors.newCachedThreadPool(new LoggingThreadFactory());
+    private final ExecutorService izouThreadPool;
     //holds the threads
-    private final ExecutorService addOnsThreadPool = Executors.newCachedThreadPool(new LoggingThreadFactory());
+    private final ExecutorService addOnsThreadPool;
+    //used to enforce the deadlines, the tasks are expected to execute quickly
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "izou-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     /**
      * creates a new ThreadPoolManager
@@ -23,6 +55,72 @@ public class ThreadPoolManager extends IzouModule {
      */
     public ThreadPoolManager(Main main) {
         super(main);
+        izouThreadPool = createThreadPool(IZOU_POOL_PROPERTY, "izou", false);
+        addOnsThreadPool = createThreadPool(ADDONS_POOL_PROPERTY, "addons", true);
+    }
+
+    /**
+     * creates the ThreadPool configured with the property
+     * @param property the property of the pool
+     * @param name the prefix of the names of the threads
+     * @param limitable whether the pool may be bounded or work-stealing
+     * @return an ExecutorService
+     */
+    private ExecutorService createThreadPool(String property, String name, boolean limitable) {
+        ExecutorStrategy strategy = ExecutorStrategy.parse(System.getProperty(property), ExecutorStrategy.CACHED);
+        if (!limitable && (strategy == ExecutorStrategy.BOUNDED || strategy == ExecutorStrategy.WORK_STEALING)) {
+            error("the " + name + "-pool runs tasks which block forever and can not be " + strategy
+                    + ", using a cached " + name + "-pool");
+            strategy = ExecutorStrategy.CACHED;
+        }
+        int processors = Runtime.getRuntime().availableProcessors();
+        switch (strategy) {
+            case BOUNDED:
+                int size = Math.max(1, Integer.getInteger(property + SIZE_SUFFIX, Math.max(32, 4 * processors)));
+                ThreadPoolExecutor executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                        new LinkedBlockingQueue<>(), new LoggingThreadFactory(name));
+                executor.allowCoreThreadTimeOut(true);
+                debug("created a bounded " + name + "-pool with " + size + " threads");
+                return executor;
+            case WORK_STEALING:
+                int parallelism = Math.max(1, Integer.getInteger(property + SIZE_SUFFIX, processors));
+                debug("created a work-stealing " + name + "-pool with a parallelism of " + parallelism);
+                return new ForkJoinPool(parallelism, new LoggingWorkerThreadFactory(name),
+                        (thread, e) -> handleThrowable(e, thread), true);
+            case VIRTUAL:
+                ThreadFactory virtualThreads = createVirtualThreadFactory(name);
+                if (virtualThreads != null) {
+                    try {
+                        ExecutorService virtual = (ExecutorService) Executors.class
+                                .getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                .invoke(null, new LoggingThreadFactory(virtualThreads));
+                        debug("created a virtual-thread-per-task " + name + "-pool");
+                        return virtual;
+                    } catch (ReflectiveOperationException e) {
+                        error("unable to create a virtual-thread-per-task executor", e);
+                    }
+                }
+                error("virtual threads are not supported by this JVM, using a cached " + name + "-pool");
+                return Executors.newCachedThreadPool(new LoggingThreadFactory(name));
+            default:
+                return Executors.newCachedThreadPool(new LoggingThreadFactory(name));
+        }
+    }
+
+    /**
+     * creates a factory of virtual threads, using reflection because Izou is compiled for Java 8
+     * @param name the prefix of the names of the threads
+     * @return the factory or null if virtual threads are not supported
+     */
+    private ThreadFactory createVirtualThreadFactory(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, name + "-", 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
     }
 
     /**
@@ -42,6 +140,15 @@ public class ThreadPoolManager extends IzouModule {
         return addOnsThreadPool;
     }
 
+    /**
+     * returns the shared timer used to enforce deadlines
+     * <p>the scheduled tasks must execute quickly, they are all executed on the same thread</p>
+     * @return a ScheduledExecutorService
+     */
+    public ScheduledExecutorService getTimer() {
+        return timer;
+    }
+
     /**
      * tries everything to log the exception
      * @param e the Throwable
@@ -60,34 +167,64 @@ public class ThreadPoolManager extends IzouModule {
         }
     }
 
+    /**
+     * wraps the task so that the Exceptions it throws get passed to {@link #handleThrowable(Throwable, Object)}
+     * @param task the task
+     * @return the wrapped task
+     */
+    private Runnable catchExceptions(Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (Exception | LinkageError e) {
+                handleThrowable(e, task);
+            }
+        };
+    }
+
     /**
      * used to catch Exception in threads
      */
     private class LoggingThreadFactory implements ThreadFactory {
+        private final ThreadFactory threads;
+
+        private LoggingThreadFactory(String name) {
+            AtomicInteger count = new AtomicInteger();
+            threads = task -> {
+                Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            };
+        }
+
+        private LoggingThreadFactory(ThreadFactory threads) {
+            this.threads = threads;
+        }
+
         @SuppressWarnings("NullableProblems")
         @Override
         public Thread newThread(Runnable r) {
-            Thread t = new Thread() {
-                public void run() {
-                    try {
-                        r.run();
-                    } catch (Exception | LinkageError e) {
-                        try {
-                            Field target = Thread.class.getDeclaredField("target");
-                            target.setAccessible(true);
-                            try {
-                                handleThrowable(e, target.get(this));
-                            } catch (IllegalAccessException e1) {
-                                log.fatal("unable to provide callback for: " + target.toString(), e);
-                            }
-                        } catch (NoSuchFieldException e1) {
-                            log.fatal(e);
-                        }
-                    }
-                }
-            };
-            t.setPriority(Thread.MIN_PRIORITY);
-            return t;
+            return threads.newThread(catchExceptions(r));
+        }
+    }
+
+    /**
+     * creates the threads of the work-stealing pools, the Exceptions are passed to the UncaughtExceptionHandler
+     */
+    private static class LoggingWorkerThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        private LoggingWorkerThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName(name + "-" + count.incrementAndGet());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
         }
     }
 }
@@ -2,13 +2,11 @@ package org.intellimate.izou.util;
 
 import ro.fortsoft.pf4j.AddonAccessible;
 
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * ALWAYS implement this interface when you have to put some Tasks into the ThreadPool
@@ -49,40 +47,127 @@ public interface AddonThreadPoolUser extends MainProvider {
 
     /**
      * times out the collection of futures
+     * <p>
+     * The returned CompletableFuture completes as soon as the last future finished or the deadline was reached, the
+     * futures still running at the deadline get cancelled.
+     * </p>
      * @param futures the collection of futures
-     * @param milliseconds the limit in milliseconds (everything under 20 milliseconds makes no sense)
+     * @param milliseconds the limit in milliseconds
+     * @param <U> the return type of the futures
+     * @param <V> the type of the futures
+     * @return a CompletableFuture completing with the List of the futures which completed in time
+     */
+    default <U, V extends CompletableFuture<U>> CompletableFuture<List<V>> timeOutAsync(Collection<? extends V> futures,
+                                                                                       long milliseconds) {
+        List<V> all = new ArrayList<>(futures);
+        CompletableFuture<List<V>> result = new CompletableFuture<>();
+        if (all.isEmpty()) {
+            result.complete(all);
+            return result;
+        }
+        ScheduledFuture<?> deadline = getMain().getThreadPoolManager().getTimer().schedule(() -> {
+            //cancel all running tasks
+            for (V future : all) {
+                if (!future.isDone()) {
+                    error(future.toString() + " timed out", new Exception(future.toString() + " timed out"));
+                    future.cancel(true);
+                }
+            }
+            result.complete(completedInTime(all));
+        }, milliseconds, TimeUnit.MILLISECONDS);
+        CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[all.size()]))
+                .whenComplete((ignored, ex) -> {
+                    deadline.cancel(false);
+                    result.complete(completedInTime(all));
+                });
+        return result;
+    }
+
+    /**
+     * times out the collection of futures and blocks until the last future finished or the deadline was reached.
+     * The futures still running at the deadline get cancelled.
+     * @param futures the collection of futures
+     * @param milliseconds the limit in milliseconds
+     * @param <U> the return type of the futures
+     * @param <V> the type of the futures
+     * @return a List of the futures which completed in time
+     * @throws InterruptedException if the process was interrupted
+     */
+    default <U, V extends CompletableFuture<U>> List<V> awaitAll(Collection<? extends V> futures,
+                                                                long milliseconds) throws InterruptedException {
+        try {
+            return this.<U, V>timeOutAsync(futures, milliseconds).get();
+        } catch (ExecutionException e) {
+            //timeOutAsync never completes exceptionally
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * times out the collection of futures
+     * <p>
+     * If all the futures are CompletableFutures, this method behaves like
+     * {@link #awaitAll(Collection, long)}, otherwise it waits for each future in turn until the deadline was reached.
+     * </p>
+     * @param futures the collection of futures
+     * @param milliseconds the limit in milliseconds
      * @param <U> the return type of the futures
      * @param <V> the type of the futures
      * @return a List of futures
      * @throws InterruptedException if the process was interrupted
      */
+    @SuppressWarnings("unchecked")
     default <U, V extends Future<U>> List<V> timeOut(Collection<? extends V> futures,
                                                    int milliseconds) throws InterruptedException {
-        // Track timeout
-        Instant start = Instant.now();
-        long duration = 0;
-        boolean notFinished = true;
-        while ( (duration < milliseconds) && notFinished) {
-            notFinished = futures.stream()
-                    .anyMatch(future -> !future.isDone());
-            duration = Instant.now().toEpochMilli() - start.toEpochMilli();
+        boolean completable = true;
+        for (V future : futures) {
+            if (!(future instanceof CompletableFuture)) {
+                completable = false;
+                break;
+            }
+        }
+        if (completable) {
+            return (List<V>) awaitAll((Collection<CompletableFuture<U>>) futures, milliseconds);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(milliseconds);
+        for (V future : futures) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+                break;
             try {
-                Thread.sleep(10);
-            } catch (InterruptedException e) {
-                throw e;
+                future.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (ExecutionException | CancellationException ignored) {
+                //the future is done
+            } catch (TimeoutException e) {
+                break;
             }
         }
 
         //cancel all running tasks
-        if(notFinished) {
-            futures.stream()
-                    .filter(future -> !future.isDone())
-                    .peek(future -> error(future.toString()+ " timed out",
-                            new Exception(future.toString() + " timed out")))
-                    .forEach(future -> future.cancel(true));
+        List<V> all = new ArrayList<>(futures);
+        for (V future : all) {
+            if (!future.isDone()) {
+                error(future.toString() + " timed out", new Exception(future.toString() + " timed out"));
+                future.cancel(true);
+            }
+        }
+        return completedInTime(all);
+    }
+
+    /**
+     * returns all the futures which are done and were not cancelled
+     * @param futures the futures to filter
+     * @param <V> the type of the futures
+     * @return a List of futures
+     */
+    static <V extends Future<?>> List<V> completedInTime(List<V> futures) {
+        List<V> done = new ArrayList<>(futures.size());
+        for (V future : futures) {
+            if (future.isDone() && !future.isCancelled()) {
+                done.add(future);
+            }
         }
-        return futures.stream()
-                .filter(Future::isDone)
-                .collect(Collectors.<V>toList());
+        return done;
     }
 }
@@ -43,6 +43,15 @@ public abstract class IzouModule implements MainProvider, Identifiable {
         return main;
     }
 
+    /**
+     * returns whether messages at debug level are logged, use it to avoid building messages nobody reads
+     *
+     * @return true if the debug level is enabled
+     */
+    public boolean isDebugEnabled() {
+        return log.isDebugEnabled();
+    }
+
     /**
      * Used to log messages at debug level
      *
@@ -0,0 +1,72 @@
+package org.intellimate.izou.events;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ */
+public class DescriptorTrieTest {
+    private static List<String> match(DescriptorTrie<String> trie, String descriptor) {
+        List<String> matched = new ArrayList<>();
+        trie.match(descriptor, matched::add);
+        Collections.sort(matched);
+        return matched;
+    }
+
+    @Test
+    public void testTrailingWildcardMatchesOneOrMoreSegments() {
+        DescriptorTrie<String> trie = new DescriptorTrie<>();
+        trie.put("izou.sound.*", "sound");
+        assertEquals(Collections.singletonList("sound"), match(trie, "izou.sound.mute"));
+        assertEquals(Collections.singletonList("sound"), match(trie, "izou.sound.player.stop"));
+        assertTrue(match(trie, "izou.sound").isEmpty());
+        assertTrue(match(trie, "izou.light.on").isEmpty());
+    }
+
+    @Test
+    public void testInnerWildcardMatchesOneSegment() {
+        DescriptorTrie<String> trie = new DescriptorTrie<>();
+        trie.put("izou.*.mute", "mute");
+        assertEquals(Collections.singletonList("mute"), match(trie, "izou.sound.mute"));
+        assertTrue(match(trie, "izou.sound.player.mute").isEmpty());
+        assertTrue(match(trie, "izou.sound.unmute").isEmpty());
+    }
+
+    @Test
+    public void testAllMatchingPatterns() {
+        DescriptorTrie<String> trie = new DescriptorTrie<>();
+        trie.put("izou.*", "all");
+        trie.put("izou.*.mute", "mute");
+        trie.put("izou.sound.mute", "literal");
+        assertEquals(3, trie.size());
+        assertEquals(Arrays.asList("all", "literal", "mute"), match(trie, "izou.sound.mute"));
+    }
+
+    @Test
+    public void testPutReplaces() {
+        DescriptorTrie<String> trie = new DescriptorTrie<>();
+        trie.put("izou.*", "old");
+        trie.put("izou.*", "new");
+        assertEquals(1, trie.size());
+        assertEquals(Collections.singletonList("new"), match(trie, "izou.sound"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartialWildcardIsRejected() {
+        new DescriptorTrie<String>().put("izou.so*", "invalid");
+    }
+
+    @Test
+    public void testIsPattern() {
+        assertTrue(DescriptorTrie.isPattern("izou.*"));
+        assertFalse(DescriptorTrie.isPattern("izou.sound"));
+        assertFalse(DescriptorTrie.isPattern(null));
+    }
+}
@@ -0,0 +1,197 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.resource.ResourceMinimalImpl;
+import org.intellimate.izou.resource.ResourceModel;
+import org.intellimate.izou.testHelper.IzouTestSupport;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ */
+public class EventLogTest {
+    private static EventDistributor eventDistributor;
+    private static Identification source;
+    private File directory;
+    private EventLog log;
+    private Thread flusher;
+
+    @BeforeClass
+    public static void setUpClass() {
+        eventDistributor = IzouTestSupport.getMain().getEventDistributor();
+        source = IzouTestSupport.getIdentification("test.log.source");
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("izou-event-log").toFile();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                assertTrue(file.delete());
+            }
+        }
+        assertTrue(directory.delete());
+    }
+
+    private SortedMap<Long, EventRecord> open() throws IOException {
+        log = new EventLog(eventDistributor, directory, 4096, true);
+        SortedMap<Long, EventRecord> recovered = log.recover();
+        flusher = new Thread(log);
+        flusher.start();
+        return recovered;
+    }
+
+    private void close() throws InterruptedException {
+        if (log == null)
+            return;
+        log.close();
+        flusher.join(1000);
+        log = null;
+    }
+
+    private long append(EventModel<?> event) throws InterruptedException {
+        long offset = log.append(event);
+        assertTrue(offset > 0);
+        log.awaitDurable(offset);
+        return offset;
+    }
+
+    private static EventModel<?> event(String type) {
+        return new EventMinimalImpl(type, source, Collections.singletonList("test.descriptor"));
+    }
+
+    private String[] segments() {
+        return directory.list((dir, name) -> name.startsWith("segment-"));
+    }
+
+    @Test
+    public void testRecoverUncompletedEvents() throws Exception {
+        open();
+        long first = append(event("first"));
+        long second = append(event("second"));
+        long third = append(event("third"));
+        log.completed(first);
+        close();
+
+        SortedMap<Long, EventRecord> recovered = open();
+        assertEquals(Arrays.asList(second, third), new ArrayList<>(recovered.keySet()));
+        EventRecord record = recovered.get(second);
+        assertEquals("second", record.getType());
+        assertEquals(source.getID(), record.getSourceID());
+        assertEquals(Collections.singletonList("test.descriptor"), record.getDescriptors());
+        //new offsets continue after the recovered ones
+        assertTrue(append(event("fourth")) > third);
+    }
+
+    @Test
+    public void testCompletedEventAfterPendingOneIsRedelivered() throws Exception {
+        open();
+        long first = append(event("first"));
+        long second = append(event("second"));
+        log.completed(second);
+        close();
+
+        //the checkpoint is below the oldest pending Event, so the Events are delivered at least once
+        assertEquals(Arrays.asList(first, second), new ArrayList<>(open().keySet()));
+    }
+
+    @Test
+    public void testCheckpointSkipsCompletedEvents() throws Exception {
+        open();
+        for (int i = 0; i < 3; i++) {
+            log.completed(append(event("completed")));
+        }
+        long pending = append(event("pending"));
+        Thread.sleep(300);
+        close();
+
+        SortedMap<Long, EventRecord> recovered = open();
+        assertEquals(Collections.singleton(pending), recovered.keySet());
+    }
+
+    @Test
+    public void testObsoleteSegmentsAreDeleted() throws Exception {
+        open();
+        for (int i = 0; i < 500; i++) {
+            log.completed(append(event("roll")));
+        }
+        Thread.sleep(300);
+        assertEquals(1, segments().length);
+        close();
+        assertTrue(open().isEmpty());
+    }
+
+    @Test
+    public void testTornRecordIsDiscarded() throws Exception {
+        open();
+        long first = append(event("first"));
+        long second = append(event("second"));
+        close();
+        //corrupt the payload of the last record
+        File segment = new File(directory, segments()[0]);
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            long position = 0;
+            for (long offset = first; offset < second; offset++) {
+                file.seek(position);
+                position += 16 + file.readInt();
+            }
+            file.seek(position + 16);
+            int payload = file.readByte();
+            file.seek(position + 16);
+            file.writeByte(~payload);
+        }
+
+        SortedMap<Long, EventRecord> recovered = open();
+        assertEquals(Collections.singleton(first), recovered.keySet());
+        //the torn record gets overwritten
+        assertEquals(second, append(event("third")));
+    }
+
+    @Test
+    public void testDeadlineAndResourcesArePersisted() throws Exception {
+        open();
+        EventMinimalImpl expiring = new EventMinimalImpl("expiring", source, Collections.emptyList(), null,
+                EventPriority.BACKGROUND, 1);
+        EventMinimalImpl living = new EventMinimalImpl("living", source, Collections.emptyList(), null,
+                EventPriority.INTERACTIVE, 60000);
+        living.addResource(new ResourceMinimalImpl<>("test.string", source, "value", null));
+        living.addResource(new ResourceMinimalImpl<>("test.integer", source, 42, null));
+        living.addResource(new ResourceMinimalImpl<>("test.unpersistable", source, new ArrayList<>(), null));
+        long expiringOffset = append(expiring);
+        long livingOffset = append(living);
+        close();
+        Thread.sleep(10);
+
+        SortedMap<Long, EventRecord> recovered = open();
+        long now = System.currentTimeMillis();
+        assertTrue(recovered.get(expiringOffset).isExpired(now));
+        EventRecord record = recovered.get(livingOffset);
+        assertFalse(record.isExpired(now));
+        EventModel<?> restored = record.toEvent(eventDistributor).orElseThrow(AssertionError::new);
+        assertEquals(EventPriority.INTERACTIVE, restored.getPriority());
+        assertTrue(restored.getTimeToLive() > 0 && restored.getTimeToLive() <= 60000);
+        List<ResourceModel> resources = restored.getListResourceContainer().provideAllResources();
+        assertEquals(2, resources.size());
+        assertEquals("test.string", resources.get(0).getResourceID());
+        assertEquals("value", resources.get(0).getResource());
+        assertEquals(source, resources.get(0).getProvider());
+        assertEquals(42, resources.get(1).getResource());
+    }
+}
@@ -0,0 +1,172 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.testHelper.IzouTestSupport;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ */
+public class EventQueueTest {
+    private static EventDistributor eventDistributor;
+    private static Identification source;
+
+    @BeforeClass
+    public static void setUp() {
+        eventDistributor = IzouTestSupport.getMain().getEventDistributor();
+        source = IzouTestSupport.getIdentification("test.queue.source");
+    }
+
+    private static EventDispatch dispatch(String type, EventPriority priority) {
+        return dispatch(type, priority, null);
+    }
+
+    private static EventDispatch dispatch(String type, EventPriority priority, PublisherQuota quota) {
+        EventModel<?> event = new EventMinimalImpl(type, source, Collections.emptyList(), null, priority);
+        return new EventDispatch(eventDistributor, event, true, quota);
+    }
+
+    private static String take(EventQueue queue) throws InterruptedException {
+        return queue.take(0).getEvent().getType();
+    }
+
+    @Test
+    public void testHighestPriorityFirst() throws Exception {
+        EventQueue queue = new EventQueue(1, 10, OverflowPolicy.BLOCK, 60000);
+        queue.put(dispatch("background", EventPriority.BACKGROUND), 0);
+        queue.put(dispatch("normal1", EventPriority.NORMAL), 0);
+        queue.put(dispatch("realTime", EventPriority.REAL_TIME), 0);
+        queue.put(dispatch("normal2", EventPriority.NORMAL), 0);
+        assertEquals(4, queue.size());
+        assertEquals("realTime", take(queue));
+        assertEquals("normal1", take(queue));
+        assertEquals("normal2", take(queue));
+        assertEquals("background", take(queue));
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    public void testStarvedEventGetsPromoted() throws Exception {
+        EventQueue queue = new EventQueue(1, 10, OverflowPolicy.BLOCK, 1);
+        queue.put(dispatch("background", EventPriority.BACKGROUND), 0);
+        Thread.sleep(10);
+        queue.put(dispatch("realTime", EventPriority.REAL_TIME), 0);
+        assertEquals("background", take(queue));
+        assertEquals("realTime", take(queue));
+        assertEquals(1, queue.getPromotedCount());
+    }
+
+    @Test
+    public void testDropOldestEvictsLowerPriority() throws Exception {
+        EventQueue queue = new EventQueue(1, 2, OverflowPolicy.DROP_OLDEST, 60000);
+        queue.put(dispatch("normal1", EventPriority.NORMAL), 0);
+        queue.put(dispatch("background", EventPriority.BACKGROUND), 0);
+        queue.put(dispatch("normal2", EventPriority.NORMAL), 0);
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals("normal1", take(queue));
+        assertEquals("normal2", take(queue));
+    }
+
+    @Test
+    public void testDropOldestEvictsOldestOfSamePriority() throws Exception {
+        EventQueue queue = new EventQueue(1, 2, OverflowPolicy.DROP_OLDEST, 60000);
+        queue.put(dispatch("normal1", EventPriority.NORMAL), 0);
+        queue.put(dispatch("normal2", EventPriority.NORMAL), 0);
+        queue.put(dispatch("normal3", EventPriority.NORMAL), 0);
+        assertEquals("normal2", take(queue));
+        assertEquals("normal3", take(queue));
+    }
+
+    @Test
+    public void testDropOldestNeverEvictsHigherPriority() throws Exception {
+        EventQueue queue = new EventQueue(1, 2, OverflowPolicy.DROP_OLDEST, 60000);
+        queue.put(dispatch("realTime", EventPriority.REAL_TIME), 0);
+        queue.put(dispatch("interactive", EventPriority.INTERACTIVE), 0);
+        queue.put(dispatch("background", EventPriority.BACKGROUND), 0);
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(2, queue.size());
+        assertEquals("realTime", take(queue));
+        assertEquals("interactive", take(queue));
+    }
+
+    @Test
+    public void testDropNewest() throws Exception {
+        EventQueue queue = new EventQueue(1, 1, OverflowPolicy.DROP_NEWEST, 60000);
+        queue.put(dispatch("first", EventPriority.BACKGROUND), 0);
+        queue.put(dispatch("second", EventPriority.REAL_TIME), 0);
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals("first", take(queue));
+    }
+
+    @Test(expected = EventQueueFullException.class)
+    public void testRejectWhenFull() throws Exception {
+        EventQueue queue = new EventQueue(1, 1, OverflowPolicy.REJECT, 60000);
+        queue.put(dispatch("first", EventPriority.NORMAL), 0);
+        queue.put(dispatch("second", EventPriority.NORMAL), 0);
+    }
+
+    @Test
+    public void testQuotaOnlyEvictsEventsOfThePublisher() throws Exception {
+        EventQueue queue = new EventQueue(1, 10, OverflowPolicy.DROP_OLDEST, 60000);
+        PublisherQuota quota = new PublisherQuota(source, 1);
+        queue.put(dispatch("other", EventPriority.BACKGROUND), 0);
+        queue.put(dispatch("quota1", EventPriority.NORMAL, quota), 0);
+        queue.put(dispatch("quota2", EventPriority.NORMAL, quota), 0);
+        assertEquals(2, queue.size());
+        assertEquals(1, quota.getQueued());
+        assertEquals("quota2", take(queue));
+        assertEquals("other", take(queue));
+    }
+
+    @Test
+    public void testBlockWaitsForSpace() throws Exception {
+        EventQueue queue = new EventQueue(1, 1, OverflowPolicy.BLOCK, 60000);
+        queue.put(dispatch("first", EventPriority.NORMAL), 0);
+        Thread producer = new Thread(() -> {
+            try {
+                queue.put(dispatch("second", EventPriority.NORMAL), 0);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        producer.start();
+        Thread.sleep(50);
+        assertTrue(producer.isAlive());
+        assertEquals("first", take(queue));
+        producer.join(1000);
+        assertFalse(producer.isAlive());
+        assertEquals("second", take(queue));
+    }
+
+    @Test
+    public void testOfferDropsInsteadOfWaiting() throws Exception {
+        EventQueue queue = new EventQueue(1, 1, OverflowPolicy.BLOCK, 60000);
+        assertTrue(queue.offer(dispatch("first", EventPriority.NORMAL), 0));
+        assertFalse(queue.offer(dispatch("second", EventPriority.REAL_TIME), 0));
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals("first", take(queue));
+    }
+
+    @Test
+    public void testOfferEvictsWithDropOldest() throws Exception {
+        EventQueue queue = new EventQueue(1, 1, OverflowPolicy.DROP_OLDEST, 60000);
+        assertTrue(queue.offer(dispatch("background", EventPriority.BACKGROUND), 0));
+        assertTrue(queue.offer(dispatch("realTime", EventPriority.REAL_TIME), 0));
+        assertEquals("realTime", take(queue));
+    }
+
+    @Test
+    public void testLanesArePartitioned() throws Exception {
+        EventQueue queue = new EventQueue(2, 10, OverflowPolicy.BLOCK, 60000);
+        queue.put(dispatch("lane0", EventPriority.NORMAL), 0);
+        queue.put(dispatch("lane1", EventPriority.NORMAL), 1);
+        assertEquals(1, queue.size(0));
+        assertEquals(1, queue.size(1));
+        assertEquals("lane1", queue.take(1).getEvent().getType());
+        assertEquals("lane0", queue.take(0).getEvent().getType());
+    }
+}
@@ -0,0 +1,78 @@
+package org.intellimate.izou.events;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ */
+public class ListenerRoutingTableTest {
+    private final EventListenerModel first = event -> {};
+    private final EventListenerModel second = event -> {};
+
+    private static EventModel<?> event(String type, String... descriptors) {
+        return new EventMinimalImpl(type, null, Arrays.asList(descriptors));
+    }
+
+    private static HashSet<EventListenerModel> listeners(ListenerRoutingTable table, EventModel<?> event) {
+        return new HashSet<>(Arrays.asList(table.getListeners(event)));
+    }
+
+    @Test
+    public void testRoutesByTypeAndDescriptor() {
+        ListenerRoutingTable table = new ListenerRoutingTable();
+        table.register(Collections.singletonList("test.routing.type"), first);
+        table.register(Collections.singletonList("test.routing.descriptor"), second);
+        assertEquals(Collections.singleton(first), listeners(table, event("test.routing.type")));
+        assertEquals(Collections.singleton(second), listeners(table, event("test.routing.other",
+                "test.routing.descriptor")));
+        assertEquals(0, table.getListeners(event("test.routing.other")).length);
+    }
+
+    @Test
+    public void testListenerIsReturnedOnce() {
+        ListenerRoutingTable table = new ListenerRoutingTable();
+        table.register(Arrays.asList("test.routing.type", "test.routing.descriptor"), first);
+        table.register(Collections.singletonList("test.routing.type"), first);
+        assertEquals(1, table.getListeners(event("test.routing.type", "test.routing.descriptor")).length);
+    }
+
+    @Test
+    public void testRegisteringInvalidatesTheCache() {
+        ListenerRoutingTable table = new ListenerRoutingTable();
+        EventModel<?> event = event("test.routing.cached");
+        assertEquals(0, table.getListeners(event).length);
+        table.register(Collections.singletonList("test.routing.cached"), first);
+        assertEquals(Collections.singleton(first), listeners(table, event));
+    }
+
+    @Test
+    public void testUnregister() {
+        ListenerRoutingTable table = new ListenerRoutingTable();
+        table.register(Arrays.asList("test.routing.type", "test.routing.descriptor"), first);
+        table.register(Collections.singletonList("test.routing.type"), second);
+        table.unregister(Collections.singletonList("test.routing.type"), first);
+        assertEquals(Collections.singleton(second), listeners(table, event("test.routing.type")));
+        assertEquals(Collections.singleton(first), listeners(table, event("test.routing.descriptor")));
+        table.unregister(first);
+        assertEquals(0, table.getListeners(event("test.routing.descriptor")).length);
+    }
+
+    @Test
+    public void testPatterns() {
+        ListenerRoutingTable table = new ListenerRoutingTable();
+        table.register(Collections.singletonList("test.pattern.*"), first);
+        table.register(Collections.singletonList("test.*.mute"), second);
+        assertEquals(Collections.singleton(first), listeners(table, event("test.pattern.play")));
+        assertEquals(new HashSet<>(Arrays.asList(first, second)), listeners(table, event("test.pattern.mute")));
+        assertEquals(Collections.singleton(second), listeners(table, event("test.sound.mute")));
+        assertEquals(0, table.getListeners(event("test.pattern")).length);
+        table.unregister(Collections.singletonList("test.pattern.*"), first);
+        assertEquals(Collections.singleton(second), listeners(table, event("test.pattern.mute")));
+    }
+}
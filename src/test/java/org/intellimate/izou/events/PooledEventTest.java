@@ -0,0 +1,97 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.resource.ResourceMinimalImpl;
+import org.intellimate.izou.testHelper.IzouTestSupport;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ */
+public class PooledEventTest {
+    private static EventDistributor eventDistributor;
+    private static Identification source;
+    private EventPool pool;
+
+    @BeforeClass
+    public static void setUpClass() {
+        eventDistributor = IzouTestSupport.getMain().getEventDistributor();
+        source = IzouTestSupport.getIdentification("test.pool.source");
+    }
+
+    @Before
+    public void setUp() {
+        pool = new EventPool(eventDistributor, 4, false);
+    }
+
+    @Test
+    public void testRecycledWhenLastReferenceIsReleased() {
+        PooledEvent event = pool.acquire("test.pool", source, Arrays.asList("a", "b"));
+        assertEquals(1, event.getReferenceCount());
+        event.retain();
+        assertFalse(event.release());
+        assertEquals(0, pool.getFreeCount());
+        assertTrue(event.release());
+        assertEquals(0, event.getReferenceCount());
+        assertEquals(1, pool.getFreeCount());
+    }
+
+    @Test
+    public void testReusedAndReinitialized() {
+        PooledEvent event = pool.acquire("test.pool", source, Arrays.asList("a", "b"));
+        event.addResource(new ResourceMinimalImpl<>("test.resource", source, "value", null));
+        event.release();
+        PooledEvent reused = pool.acquire("test.pool.other", source, Arrays.asList("c"), null,
+                EventPriority.REAL_TIME, 100);
+        assertSame(event, reused);
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(1, pool.getReusedCount());
+        assertEquals("test.pool.other", reused.getType());
+        assertEquals(Arrays.asList("c"), reused.getDescriptors());
+        assertEquals(Arrays.asList("c", "test.pool.other"), reused.getAllInformations());
+        assertTrue(reused.containsDescriptor("c"));
+        assertFalse(reused.containsDescriptor("a"));
+        assertEquals(EventPriority.REAL_TIME, reused.getPriority());
+        assertEquals(100, reused.getTimeToLive());
+        assertFalse(reused.hasLifecycleCallback());
+        assertTrue(reused.getListResourceContainer().provideAllResources().isEmpty());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDoubleReleaseThrows() {
+        PooledEvent event = pool.acquire("test.pool", source, Arrays.asList("a"));
+        event.release();
+        event.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRetainAfterReleaseThrows() {
+        PooledEvent event = pool.acquire("test.pool", source, Arrays.asList("a"));
+        event.release();
+        event.retain();
+    }
+
+    @Test
+    public void testPoolIsBounded() {
+        EventPool small = new EventPool(eventDistributor, 1, false);
+        PooledEvent first = small.acquire("test.pool", source, Arrays.asList("a"));
+        PooledEvent second = small.acquire("test.pool", source, Arrays.asList("a"));
+        first.release();
+        second.release();
+        assertEquals(1, small.getFreeCount());
+    }
+
+    @Test
+    public void testOnlyEqualToItself() {
+        PooledEvent first = pool.acquire("test.pool", source, Arrays.asList("a"));
+        PooledEvent second = pool.acquire("test.pool", source, Arrays.asList("a"));
+        assertNotEquals(first, second);
+        assertEquals(first, first);
+    }
+}
@@ -0,0 +1,130 @@
+package org.intellimate.izou.events;
+
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.testHelper.IzouTestSupport;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @version 1.0
+ */
+public class StormGuardTest {
+    private static EventDistributor eventDistributor;
+    private static Identification first;
+    private static Identification second;
+    //the time of the clock of the guards in nanoseconds, starts in the middle of a second
+    private long now = 1_500_000_000L;
+
+    @BeforeClass
+    public static void setUpClass() {
+        eventDistributor = IzouTestSupport.getMain().getEventDistributor();
+        first = IzouTestSupport.getIdentification("test.storm.first");
+        second = IzouTestSupport.getIdentification("test.storm.second");
+    }
+
+    private static EventModel<?> event(String type, Identification source) {
+        return new EventMinimalImpl(type, source, Collections.emptyList());
+    }
+
+    private StormGuard guard(int sourceRate, int typeRate, int maxDepth, boolean quarantine, int throttleRate) {
+        return new StormGuard(eventDistributor, sourceRate, typeRate, maxDepth, 60000, quarantine, throttleRate,
+                () -> now);
+    }
+
+    /**
+     * creates a cascade of nodes, the last one is returned
+     */
+    private static TraceNode cascade(int depth, String... sourceIDs) {
+        TraceNode node = null;
+        for (int i = 0; i <= depth; i++) {
+            node = new TraceNode(i + 1, node, "test.storm.cascade", sourceIDs[i % sourceIDs.length]);
+        }
+        return node;
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertFalse(new StormGuard(eventDistributor, 0, 0, 0, 10000, false, 10).isEnabled());
+    }
+
+    @Test
+    public void testSourceExceedingItsRateIsRestricted() {
+        StormGuard guard = guard(3, 0, 0, true, 0);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(guard.admit(event("test.storm", first), null));
+        }
+        assertFalse(guard.admit(event("test.storm", first), null));
+        assertEquals(Collections.singletonList(first.getID()), guard.getRestricted());
+        assertTrue(guard.admit(event("test.storm", second), null));
+        //quarantined
+        assertFalse(guard.admit(event("test.storm", first), null));
+        assertEquals(1, guard.getStormCount());
+        assertEquals(2, guard.getRejectedCount());
+        assertTrue(guard.release(first.getID()));
+        assertTrue(guard.getRestricted().isEmpty());
+    }
+
+    @Test
+    public void testThrottledSourceKeepsItsThrottleRate() {
+        StormGuard guard = guard(1, 0, 0, false, 2);
+        assertTrue(guard.admit(event("test.storm", first), null));
+        assertFalse(guard.admit(event("test.storm", first), null));
+        assertTrue(guard.admit(event("test.storm", first), null));
+        assertTrue(guard.admit(event("test.storm", first), null));
+        assertFalse(guard.admit(event("test.storm", first), null));
+    }
+
+    @Test
+    public void testTypeExceedingItsRateRestrictsNoSource() {
+        StormGuard guard = guard(0, 3, 0, true, 0);
+        assertTrue(guard.admit(event("test.storm.type", first), null));
+        assertTrue(guard.admit(event("test.storm.type", second), null));
+        assertTrue(guard.admit(event("test.storm.type", first), null));
+        assertFalse(guard.admit(event("test.storm.type", second), null));
+        assertTrue(guard.getRestricted().isEmpty());
+        assertTrue(guard.admit(event("test.storm.other", second), null));
+    }
+
+    @Test
+    public void testRatesAreCountedPerSecond() {
+        StormGuard guard = guard(0, 2, 0, true, 0);
+        assertTrue(guard.admit(event("test.storm.type", first), null));
+        assertTrue(guard.admit(event("test.storm.type", first), null));
+        assertFalse(guard.admit(event("test.storm.type", first), null));
+        now += 1_000_000_000L;
+        assertTrue(guard.admit(event("test.storm.type", first), null));
+    }
+
+    @Test
+    public void testRestrictionIsLiftedAfterTheCooldown() {
+        StormGuard guard = guard(1, 0, 0, true, 0);
+        assertTrue(guard.admit(event("test.storm", first), null));
+        assertFalse(guard.admit(event("test.storm", first), null));
+        now += 1_000_000_000L;
+        assertFalse(guard.admit(event("test.storm", first), null));
+        now += 60_000_000_000L;
+        assertTrue(guard.admit(event("test.storm", first), null));
+        assertTrue(guard.getRestricted().isEmpty());
+    }
+
+    @Test
+    public void testSourceFeedingItsOwnCascadeIsRestricted() {
+        StormGuard guard = guard(0, 0, 4, true, 0);
+        assertTrue(guard.admit(event("test.storm.cascade", first), cascade(4, first.getID())));
+        assertFalse(guard.admit(event("test.storm.cascade", first), cascade(5, first.getID())));
+        assertEquals(Collections.singletonList(first.getID()), guard.getRestricted());
+    }
+
+    @Test
+    public void testSourceInForeignCascadeIsNotRestricted() {
+        StormGuard guard = guard(0, 0, 4, true, 0);
+        assertFalse(guard.admit(event("test.storm.cascade", second), cascade(5, first.getID(), second.getID())));
+        assertTrue(guard.getRestricted().isEmpty());
+        assertEquals(1, guard.getRejectedCount());
+        assertTrue(guard.admit(event("test.storm.cascade", second), null));
+    }
+}
@@ -0,0 +1,40 @@
+package org.intellimate.izou.testHelper;
+
+import org.intellimate.izou.identification.Identifiable;
+import org.intellimate.izou.identification.Identification;
+import org.intellimate.izou.main.Main;
+
+/**
+ * Provides one izou-instance shared by all the tests, started without JavaFX, the lib-folder and the SecurityManager.
+ * @version 1.0
+ */
+public final class IzouTestSupport {
+    private static Main main;
+
+    private IzouTestSupport() {
+    }
+
+    /**
+     * returns the shared instance, starting it if necessary
+     * @return the instance of Main
+     */
+    public static synchronized Main getMain() {
+        if (main == null) {
+            System.setProperty("noSecurity", "true");
+            main = new Main(null, false, true);
+        }
+        return main;
+    }
+
+    /**
+     * registers an Identifiable with the ID and returns its Identification
+     * @param id the ID
+     * @return the Identification
+     */
+    public static Identification getIdentification(String id) {
+        Identifiable identifiable = () -> id;
+        getMain().getIdentificationManager().registerIdentification(identifiable);
+        return getMain().getIdentificationManager().getIdentification(id)
+                .orElseThrow(() -> new IllegalStateException("unable to register " + id));
+    }
+}